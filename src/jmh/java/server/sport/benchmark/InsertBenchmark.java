@@ -0,0 +1,137 @@
+package server.sport.benchmark;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.sport.SportApplication;
+import server.sport.model.*;
+import server.sport.service.LocationAvailabilityIndex;
+import server.sport.testdata.SyntheticDataGenerator;
+import server.sport.testdata.SyntheticDataLoader;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Inserts ACTIVITIES activities, each with its reservation, through JPA in one transaction, flushing and clearing
+ * the persistence context every FLUSH_EVERY activities like a bulk import. The rows are deleted after every call,
+ * and the availability index is loaded again, so every call starts from the same state.
+ * roundTripMs is added to every statement and every batch, H2 runs in the same process and RDS is one network hop away.
+ * Run: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="InsertBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InsertBenchmark {
+    private static final int ACTIVITIES = 10000;
+    private static final int FLUSH_EVERY = 50;
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Param({"0", "1"})
+    long roundTripMs;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+    JdbcTemplate jdbcTemplate;
+
+    int creatorId;
+    int activityTypeId;
+    int teamId;
+    int locationId;
+    int lastReservationId;
+    int lastActivityId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SportApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (roundTripMs > 0 && bean instanceof DataSource) {
+                            return ProxyDataSourceBuilder.create((DataSource) bean).beforeQuery((execution, queries) -> roundTrip()).build();
+                        }
+                        return bean;
+                    }
+                }))
+                .properties("logging.level.root=WARN", "sql.log.slow-threshold-ms=60000", "testdata.synthetic.reservations=1000")
+                .run();
+        SyntheticDataGenerator.Result data = context.getBean(SyntheticDataLoader.class).getResult();
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        creatorId = data.getFirstUserId();
+        teamId = data.getFirstTeamId();
+        locationId = data.getFirstLocationId();
+        activityTypeId = jdbcTemplate.queryForObject("SELECT activity_type_id FROM activity_types WHERE activity_type_name = 'TRAINING'", Integer.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void rememberLastIds() {
+        lastReservationId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(reservation_id), 0) FROM reservations", Integer.class);
+        lastActivityId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(activity_id), 0) FROM activities", Integer.class);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteInserted() {
+        jdbcTemplate.update("DELETE FROM activities WHERE activity_id > ?", lastActivityId);
+        jdbcTemplate.update("DELETE FROM reservations WHERE reservation_id > ?", lastReservationId);
+        context.getBean(LocationAvailabilityIndex.class).warmUp();
+    }
+
+    private void roundTrip() {
+        try {
+            Thread.sleep(roundTripMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Benchmark
+    public void insertActivities() {
+        transactionTemplate.execute(status -> {
+            //one day after another, far after the synthetic reservations
+            long startAt = Timestamp.valueOf("2030-01-01 17:00:00").getTime();
+            for (int i = 0; i < ACTIVITIES; i++) {
+                Reservation reservation = new Reservation(0, new Timestamp(startAt + i * 24 * HOUR), new Timestamp(startAt + i * 24 * HOUR + 2 * HOUR),
+                        null, entityManager.getReference(Location.class, locationId));
+                entityManager.persist(reservation);
+
+                Activity activity = new Activity();
+                activity.setActivityName("Training " + i);
+                activity.setCreator(entityManager.getReference(User.class, creatorId));
+                activity.setActivityType(entityManager.getReference(ActivityType.class, activityTypeId));
+                activity.setTeam(entityManager.getReference(Team.class, teamId));
+                activity.setReservation(reservation);
+                entityManager.persist(activity);
+
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return null;
+        });
+    }
+}
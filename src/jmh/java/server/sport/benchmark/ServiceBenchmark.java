@@ -0,0 +1,128 @@
+package server.sport.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.sport.SportApplication;
+import server.sport.service.*;
+import server.sport.testdata.SyntheticDataGenerator;
+import server.sport.testdata.SyntheticDataLoader;
+
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Hot read paths of the service layer against the H2 test database, filled by the SyntheticDataLoader.
+ * Every call runs in a read-only transaction, like a web request with its open session.
+ * Run: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ServiceBenchmark -p reservations=1000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceBenchmark {
+    private static final String[] SORT_BY_ID = {"activityId", "desc"};
+    private static final String[] SORT_BY_LAST_NAME = {"lastName", "asc"};
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    int reservations;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    ActivityService activityService;
+    LocationService locationService;
+    UserService userService;
+    TeamService teamService;
+
+    int middlePage;
+    int firstTeamId;
+    int firstLocationId;
+    Timestamp windowStart;
+    Timestamp windowEnd;
+    Timestamp weekEnd;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SportApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN", "testdata.synthetic.reservations=" + reservations)
+                .run();
+        SyntheticDataGenerator.Result data = context.getBean(SyntheticDataLoader.class).getResult();
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        activityService = context.getBean(ActivityService.class);
+        locationService = context.getBean(LocationService.class);
+        userService = context.getBean(UserService.class);
+        teamService = context.getBean(TeamService.class);
+
+        middlePage = reservations / PAGE_SIZE / 2;
+        firstTeamId = data.getFirstTeamId();
+        firstLocationId = data.getFirstLocationId();
+        //a two hour window in the middle of the booked days
+        long middle = (data.getFirstStartAt().getTime() + data.getLastEndAt().getTime()) / 2;
+        windowStart = new Timestamp(middle);
+        windowEnd = new Timestamp(middle + 2 * 60 * 60 * 1000);
+        weekEnd = new Timestamp(middle + 7 * 24 * 60 * 60 * 1000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getPageOfActivitiesFirstPage(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> activityService.getPageOfActivities(0, PAGE_SIZE, SORT_BY_ID)));
+    }
+
+    @Benchmark
+    public void getPageOfActivitiesMiddlePage(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> activityService.getPageOfActivities(middlePage, PAGE_SIZE, SORT_BY_ID)));
+    }
+
+    @Benchmark
+    public void getAllLocationsFreeInWindow(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> {
+            try {
+                return locationService.getAllLocations(windowStart, windowEnd);
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+    }
+
+    //a week of one location, a seek on the (location_id, start_at, end_at) index of the reservations
+    @Benchmark
+    public void getCalendarOfLocation(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> activityService.getCalendar(windowStart, weekEnd, null, firstLocationId)));
+    }
+
+    @Benchmark
+    public void getCalendarOfTeam(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> activityService.getCalendar(windowStart, weekEnd, firstTeamId, null)));
+    }
+
+    @Benchmark
+    public void getTeamMembers(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> userService.getTeamMembers(firstTeamId, SORT_BY_LAST_NAME, 0, PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public void getAllTeams(Blackhole blackhole) {
+        blackhole.consume(inTransaction(() -> teamService.getAllTeams()));
+    }
+
+    private <T> T inTransaction(Supplier<T> call) {
+        return transactionTemplate.execute(status -> call.get());
+    }
+}
@@ -5,11 +5,17 @@ import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import server.sport.model.Activity;
+import server.sport.model.ActivityDetail;
+import server.sport.model.ActivitySchedule;
+import server.sport.model.ActivitySummary;
 import server.sport.model.Responsibility;
 import server.sport.service.ActivityService;
 
+import java.sql.Timestamp;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 
@@ -25,22 +31,47 @@ public class ActivityController {
     public ResponseEntity<Map<String, Object>> getPageOfActivities(
             @RequestParam(defaultValue = "0")int page, //activities to be loaded on page 0
             @RequestParam(defaultValue = "3")int size, //3 activities will be fetched from the database
-            @RequestParam(defaultValue = "activityId,desc")String[] sort //ordered by descending order
+            @RequestParam(defaultValue = "activityId,desc")String[] sort, //ordered by descending order
+            @RequestParam(required = false)String cursor //keyset pagination instead of page, empty for the first page
     ){
+        if (cursor != null) {
+            return activityService.getActivitiesAfterCursor(cursor, size, sort);
+        }
         return activityService.getPageOfActivities(page, size, sort);
     }
 
 
     @GetMapping("/{activity_id}")
-    public ResponseEntity<Activity> getActivityById(@PathVariable("activity_id") int activityId){
+    public ResponseEntity<ActivityDetail> getActivityById(@PathVariable("activity_id") int activityId){
         return activityService.getActivityById(activityId);
     }
 
+    //e.g. {"ATTENDING": 12, "NOT ATTENDING": 3, "HAS NOT ANSWERED": 20}
+    @GetMapping("/{activity_id}/tally")
+    public ResponseEntity<Map<String, Long>> getTally(@PathVariable("activity_id") int activityId){
+        return activityService.getTally(activityId);
+    }
+
     @GetMapping("/teamActivities/{team_id}")
-    public ResponseEntity<Collection<Activity>> getActivitiesForTeam(@PathVariable("team_id") int teamId){
+    public ResponseEntity<Collection<ActivitySummary>> getActivitiesForTeam(@PathVariable("team_id") int teamId){
         return activityService.getActivitiesForTeam(teamId);
     }
 
+    //one-off activities and occurrences of series in [from, to), optionally of one team and/or at one location
+    @GetMapping("/calendar")
+    public ResponseEntity<List<ActivitySummary>> getCalendar(@RequestParam Timestamp from, @RequestParam Timestamp to,
+                                                             @RequestParam(required = false) Integer teamId,
+                                                             @RequestParam(required = false) Integer locationId){
+        return activityService.getCalendar(from, to, teamId, locationId);
+    }
+
+    //whole history of the team, written while it is read - format=ndjson or format=csv
+    @GetMapping("/teamActivities/{team_id}/export")
+    public ResponseEntity<StreamingResponseBody> exportActivitiesForTeam(@PathVariable("team_id") int teamId,
+                                                                         @RequestParam(defaultValue = "ndjson") String format){
+        return activityService.exportActivitiesForTeam(teamId, format);
+    }
+
     //Put responsibility into activity
     @PutMapping("/{activity_id}")
     public ResponseEntity<Activity> updateActivityInformation (@PathVariable("activity_id") int activityId, @RequestBody(required = false) Responsibility responsibility){
@@ -52,4 +83,10 @@ public class ActivityController {
     public ResponseEntity<Activity> createActivity (@RequestBody Activity activity){
         return activityService.createActivity(activity);
     }
+
+    //a season at once: the activity is repeated by repeatEveryDays and occurrences, or once per listed reservation
+    @PostMapping("/bulk")
+    public ResponseEntity<List<ActivitySummary>> createActivities (@RequestBody ActivitySchedule schedule){
+        return activityService.createActivities(schedule);
+    }
 }
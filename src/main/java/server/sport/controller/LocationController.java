@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import server.sport.model.Location;
 import server.sport.service.LocationService;
 
@@ -21,15 +22,29 @@ public class LocationController {
 
     //////Getting all locations based on start date and end date ??
     @GetMapping("/all")
-    public ResponseEntity<List<Location>> getAllLocations (@RequestParam(required = false) Timestamp startAt, @RequestParam(required = false) Timestamp endAt) throws ParseException { //how to handle exception???
+    public ResponseEntity<List<Location>> getAllLocations (@RequestParam(required = false) Timestamp startAt, @RequestParam(required = false) Timestamp endAt, WebRequest request) throws ParseException { //how to handle exception???
+        //free locations depend on the reservations too, only the full list is conditional
+        if (startAt == null && request.checkNotModified(locationService.getLocationsTag())) {
+            return null;
+        }
         return locationService.getAllLocations(startAt, endAt);
     }
 
+    //free/busy bitmap of every location for a whole week grid at once
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Object>> getAvailability (@RequestParam Timestamp from, @RequestParam Timestamp to) {
+        return locationService.getAvailability(from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> getPageOfLocations (
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "3") int size,
-            @RequestParam(defaultValue = "courtName,desc") String[] sort) {
+            @RequestParam(defaultValue = "courtName,desc") String[] sort,
+            WebRequest request) {
+        if (request.checkNotModified(locationService.getLocationsTag())) {
+            return null;
+        }
         return locationService.getPageOfLocations(page, size, sort);
     }
 
@@ -0,0 +1,44 @@
+package server.sport.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.sport.model.ActivityOccurrence;
+import server.sport.model.ActivitySeries;
+import server.sport.service.ActivitySeriesService;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@CrossOrigin
+@RequestMapping("/api/series")
+@RestController
+public class SeriesController {
+
+    @Autowired
+    ActivitySeriesService activitySeriesService;
+
+    //recurrenceRule is an RRULE, e.g. FREQ=WEEKLY;BYDAY=MO,TH;UNTIL=20210630
+    @PostMapping
+    public ResponseEntity<ActivitySeries> createSeries(@RequestBody ActivitySeries series){
+        return activitySeriesService.createSeries(series);
+    }
+
+    @GetMapping("/teams/{team_id}/occurrences")
+    public ResponseEntity<List<ActivityOccurrence>> getOccurrencesForTeam(@PathVariable("team_id") int teamId,
+                                                                          @RequestParam Timestamp from, @RequestParam Timestamp until){
+        return activitySeriesService.getOccurrencesForTeam(teamId, from, until);
+    }
+
+    //materializes the occurrence, statuses and responsibilities are then changed on the returned activity id
+    @PutMapping("/{series_id}/occurrences")
+    public ResponseEntity<ActivityOccurrence> materializeOccurrence(@PathVariable("series_id") int seriesId, @RequestParam Timestamp startAt){
+        return activitySeriesService.materializeOccurrence(seriesId, startAt, false);
+    }
+
+    //cancels one occurrence, the rest of the series stays
+    @DeleteMapping("/{series_id}/occurrences")
+    public ResponseEntity<ActivityOccurrence> cancelOccurrence(@PathVariable("series_id") int seriesId, @RequestParam Timestamp startAt){
+        return activitySeriesService.materializeOccurrence(seriesId, startAt, true);
+    }
+}
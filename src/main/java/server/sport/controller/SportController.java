@@ -3,6 +3,7 @@ package server.sport.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import server.sport.model.Sport;
 import server.sport.service.SportService;
 
@@ -16,6 +17,14 @@ public class SportController {
     @Autowired
     SportService sportService;
 
+    @GetMapping
+    public ResponseEntity<List<Sport>> getAllSports(WebRequest request) {
+        if (request.checkNotModified(sportService.getSportsTag())) {
+            return null;
+        }
+        return sportService.getAllSports();
+    }
+
     //At this stage it is simply making sport name, and is not concerned with the teams that correspond with the sport
     @PostMapping ()
     public ResponseEntity <Sport> createSport (@RequestBody Sport sport) {
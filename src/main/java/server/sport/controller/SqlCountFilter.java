@@ -0,0 +1,81 @@
+package server.sport.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import server.sport.repository.SqlStatementCounter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/*
+ * Adds the number of SQL statements of a request as X-SQL-Count and logs a warning above sql.statements.warn-threshold.
+ * Lazy collections are loaded while Jackson writes the body, so the body is held back until the count is known.
+ * Streamed responses (events, exports) write straight through once they go async and get no header.
+ */
+@Component
+public class SqlCountFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-SQL-Count";
+    private static final Logger log = LoggerFactory.getLogger(SqlCountFilter.class);
+
+    @Value("${sql.statements.warn-threshold:20}")
+    int warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long before = SqlStatementCounter.current();
+        CountedResponse countedResponse = new CountedResponse(request, response);
+        try {
+            filterChain.doFilter(request, countedResponse);
+        } finally {
+            long statements = SqlStatementCounter.current() - before;
+            if (!request.isAsyncStarted()) {
+                if (!response.isCommitted()) {
+                    response.setHeader(HEADER, String.valueOf(statements));
+                }
+                countedResponse.copyBodyToResponse();
+            }
+            if (statements > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements, more than {} - look for lazy collections loaded one by one",
+                        request.getMethod(), request.getRequestURI(), statements, warnThreshold);
+            }
+        }
+    }
+
+    private static final class CountedResponse extends ContentCachingResponseWrapper {
+        private final HttpServletRequest request;
+
+        CountedResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return request.isAsyncStarted() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return request.isAsyncStarted() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
+}
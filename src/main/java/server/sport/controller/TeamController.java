@@ -7,8 +7,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import server.sport.exception.ResourceNotFoundException;
 import server.sport.exception.EntityCannotBeProcessedExecption;
 import server.sport.model.Sport;
@@ -33,15 +36,28 @@ public class TeamController {
     TeamService teamService;
 
     @GetMapping //list of teams with sport
-    public ResponseEntity<List<Team>> getAllTeams() {
+    public ResponseEntity<List<Team>> getAllTeams(WebRequest request) {
+        //304 without reading the teams when the client already has the current list
+        if (request.checkNotModified(teamService.getTeamsTag())) {
+            return null;
+        }
         return  teamService.getAllTeams();
     }
 
     @GetMapping("/{team_id}")//teams information
-    public ResponseEntity<Team> getTeam(@PathVariable("team_id") int teamId) {
+    public ResponseEntity<Team> getTeam(@PathVariable("team_id") int teamId, WebRequest request) {
+        Optional<String> tag = teamService.getTeamTag(teamId);
+        if (tag.isPresent() && request.checkNotModified(tag.get())) {
+            return null;
+        }
         return teamService.getTeam(teamId);
     }
 
+    @GetMapping(value = "/{team_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)//new activities, changes and answers of the team
+    public ResponseEntity<SseEmitter> subscribeToEvents(@PathVariable("team_id") int teamId) {
+        return teamService.subscribeToEvents(teamId);
+    }
+
     @PutMapping("/{team_id}")//update team @RequestBody team
     public ResponseEntity<Team> updateTeam(@PathVariable("team_id") int teamId, @RequestBody Team team) {
         return teamService.updateTeam(teamId, team);
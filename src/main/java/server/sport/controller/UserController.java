@@ -36,8 +36,9 @@ public class UserController {
     //Method updates activity with user status
     @PutMapping("/{user_id}/{activity_id}")
     public ResponseEntity<Integer> updateStatusInActivity (@PathVariable("user_id") int userId, @PathVariable("activity_id") int activityId,
-                                                    @RequestParam(required = false) String status){
-        return userService.updateStatusInActivity(userId, activityId, status);
+                                                    @RequestParam(required = false) String status,
+                                                    @RequestParam(defaultValue = UserService.ACK_FLUSHED) String ack){
+        return userService.updateStatusInActivity(userId, activityId, status, ack);
     }
 
     @GetMapping("/{user_id}/activity/{activity_id}")//activity information
@@ -0,0 +1,5 @@
+package server.sport.enumerated;
+
+public enum TeamEventType {
+    ACTIVITY_CREATED, ACTIVITY_UPDATED, STATUS_CHANGED
+}
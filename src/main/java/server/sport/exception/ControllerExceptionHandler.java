@@ -35,6 +35,18 @@ public class ControllerExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    @ExceptionHandler(ReservationConflictException.class)
+    public ResponseEntity <ErrorMessage> reservationConflict (ReservationConflictException e, WebRequest request){
+        ErrorMessage message = new ReservationConflictMessage(
+                HttpStatus.CONFLICT.value(),
+                new Date(),
+                e.getMessage(),
+                request.getDescription(false),
+                e.getConflictingReservationIds(),
+                e.getConflictingSeriesIds());
+
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorMessage> globalExceptionHandler (Exception e, WebRequest request){ //Using our own ErrorMessage object
@@ -0,0 +1,31 @@
+package server.sport.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ReservationConflictException extends RuntimeException{
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Integer> conflictingReservationIds;
+    //series with an occurrence in the time frame which is not materialized as a reservation yet
+    private final List<Integer> conflictingSeriesIds;
+
+    public ReservationConflictException(String msg, List<Integer> conflictingReservationIds){
+        this(msg, conflictingReservationIds, Collections.emptyList());
+    }
+
+    public ReservationConflictException(String msg, List<Integer> conflictingReservationIds, List<Integer> conflictingSeriesIds){
+        super(msg);
+        this.conflictingReservationIds = conflictingReservationIds;
+        this.conflictingSeriesIds = conflictingSeriesIds;
+    }
+
+    public List<Integer> getConflictingReservationIds() {
+        return conflictingReservationIds;
+    }
+
+    public List<Integer> getConflictingSeriesIds() {
+        return conflictingSeriesIds;
+    }
+}
@@ -0,0 +1,25 @@
+package server.sport.exception;
+
+import java.util.Date;
+import java.util.List;
+
+public class ReservationConflictMessage extends ErrorMessage {
+
+    private List<Integer> conflictingReservationIds;
+    private List<Integer> conflictingSeriesIds;
+
+    public ReservationConflictMessage(int statusCode, Date timeStamp, String message, String description, List<Integer> conflictingReservationIds,
+                                      List<Integer> conflictingSeriesIds) {
+        super(statusCode, timeStamp, message, description);
+        this.conflictingReservationIds = conflictingReservationIds;
+        this.conflictingSeriesIds = conflictingSeriesIds;
+    }
+
+    public List<Integer> getConflictingReservationIds() {
+        return conflictingReservationIds;
+    }
+
+    public List<Integer> getConflictingSeriesIds() {
+        return conflictingSeriesIds;
+    }
+}
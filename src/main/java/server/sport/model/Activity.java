@@ -1,8 +1,9 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.persistence.*;
+import java.sql.Timestamp;
 import java.util.Collection;
 
 
@@ -10,7 +11,8 @@ import java.util.Collection;
 /*@JsonIdentityInfo(
         generator = ObjectIdGenerators.PropertyGenerator.class,
         property = "activityId")*/
-@Table(name = "activities")
+//an occurrence of a series is materialized at most once
+@Table(name = "activities", uniqueConstraints = @UniqueConstraint(columnNames = {"series_id", "occurrence_start_at"}))
 public class Activity {
     private int activityId;
     private String activityName;
@@ -24,10 +26,12 @@ public class Activity {
     private Match match;
     private Collection<UserResponsibility> userResponsibilities;
     private Team team;
+    private ActivitySeries series;
+    private Timestamp occurrenceStartAt;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activities_seq")
+    @SequenceGenerator(name = "activities_seq", sequenceName = "activities_seq", allocationSize = 50)
     @Column(name = "activity_id", nullable = false)
 
     public int getActivityId() {
@@ -137,6 +141,33 @@ public class Activity {
         this.team = team;
     }
 
+    //set when the activity is a materialized occurrence of a series
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id", referencedColumnName = "series_id", nullable = true)
+    public ActivitySeries getSeries() {
+        return series;
+    }
+
+    public void setSeries(ActivitySeries series) {
+        this.series = series;
+    }
+
+    @Transient
+    public Integer getSeriesId() {
+        return series == null ? null : series.getSeriesId();
+    }
+
+    @Basic
+    @Column(name = "occurrence_start_at", nullable = true)
+    public Timestamp getOccurrenceStartAt() {
+        return occurrenceStartAt;
+    }
+
+    public void setOccurrenceStartAt(Timestamp occurrenceStartAt) {
+        this.occurrenceStartAt = occurrenceStartAt;
+    }
+
     @OneToOne
     @JoinColumn(name = "reservation_id", referencedColumnName = "reservation_id", nullable = false)
     public Reservation getReservation() {
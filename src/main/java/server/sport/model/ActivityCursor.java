@@ -0,0 +1,97 @@
+package server.sport.model;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+//Position in the list of activities for keyset pagination - the sort value and id of the last activity a client received
+public class ActivityCursor {
+    public static final List<String> SORT_FIELDS = Arrays.asList("activityId", "activityName", "startAt");
+
+    private final String sortField;
+    private final Sort.Direction direction;
+    private final Object lastSortKey;
+    private final Integer lastActivityId;
+
+    private ActivityCursor(String sortField, Sort.Direction direction, Object lastSortKey, Integer lastActivityId) {
+        if (!SORT_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Can't sort according to: " + sortField);
+        }
+        this.sortField = sortField;
+        this.direction = direction;
+        this.lastSortKey = lastSortKey;
+        this.lastActivityId = lastActivityId;
+    }
+
+    //cursor of the first page
+    public static ActivityCursor first(String sortField, Sort.Direction direction) {
+        return new ActivityCursor(sortField, direction, null, null);
+    }
+
+    public ActivityCursor after(Activity activity) {
+        Object sortKey;
+        switch (sortField) {
+            case "activityName":
+                sortKey = activity.getActivityName();
+                break;
+            case "startAt":
+                sortKey = activity.getReservation().getStartAt();
+                break;
+            default:
+                sortKey = activity.getActivityId();
+        }
+        return new ActivityCursor(sortField, direction, sortKey, activity.getActivityId());
+    }
+
+    public String encode() {
+        String sortKey = lastSortKey instanceof Timestamp ? String.valueOf(((Timestamp) lastSortKey).getTime()) : String.valueOf(lastSortKey);
+        String value = sortField + "," + direction + "," + lastActivityId + "," + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ActivityCursor decode(String cursor) {
+        //the sort key goes last, an activity name may contain commas
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String sortField = parts[0];
+        int lastActivityId = Integer.parseInt(parts[2]);
+        Object sortKey;
+        switch (sortField) {
+            case "activityName":
+                sortKey = parts[3];
+                break;
+            case "startAt":
+                sortKey = new Timestamp(Long.parseLong(parts[3]));
+                break;
+            default:
+                sortKey = Integer.parseInt(parts[3]);
+        }
+        return new ActivityCursor(sortField, Sort.Direction.fromString(parts[1]), sortKey, lastActivityId);
+    }
+
+    public boolean isFirstPage() {
+        return lastActivityId == null;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Object getLastSortKey() {
+        return lastSortKey;
+    }
+
+    public Integer getLastActivityId() {
+        return lastActivityId;
+    }
+}
@@ -0,0 +1,95 @@
+package server.sport.model;
+
+import java.util.Collection;
+import java.util.Date;
+
+//Read-only view of a single activity, the header comes from one query and the participants and responsibilities from one query each
+public class ActivityDetail extends ActivitySummary {
+
+    private Integer capacity;
+    private String description;
+    private int creatorId;
+    private String creatorFirstName;
+    private String creatorLastName;
+    private Integer matchScore;
+    private Collection<ActivityParticipant> participants;
+    private Collection<AssignedResponsibility> responsibilities;
+
+    public ActivityDetail(int activityId, String activityName, boolean isCancelled, String activityTypeName, Integer teamId, String teamName, int reservationId, Date startAt, Date endAt, Integer locationId, String courtName,
+                          Integer capacity, String description, int creatorId, String creatorFirstName, String creatorLastName, Integer matchScore) {
+        super(activityId, activityName, isCancelled, activityTypeName, teamId, teamName, reservationId, startAt, endAt, locationId, courtName);
+        this.capacity = capacity;
+        this.description = description;
+        this.creatorId = creatorId;
+        this.creatorFirstName = creatorFirstName;
+        this.creatorLastName = creatorLastName;
+        this.matchScore = matchScore;
+    }
+
+    public ActivityDetail() {
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getCreatorId() {
+        return creatorId;
+    }
+
+    public void setCreatorId(int creatorId) {
+        this.creatorId = creatorId;
+    }
+
+    public String getCreatorFirstName() {
+        return creatorFirstName;
+    }
+
+    public void setCreatorFirstName(String creatorFirstName) {
+        this.creatorFirstName = creatorFirstName;
+    }
+
+    public String getCreatorLastName() {
+        return creatorLastName;
+    }
+
+    public void setCreatorLastName(String creatorLastName) {
+        this.creatorLastName = creatorLastName;
+    }
+
+    public Integer getMatchScore() {
+        return matchScore;
+    }
+
+    public void setMatchScore(Integer matchScore) {
+        this.matchScore = matchScore;
+    }
+
+    public Collection<ActivityParticipant> getParticipants() {
+        return participants;
+    }
+
+    public void setParticipants(Collection<ActivityParticipant> participants) {
+        this.participants = participants;
+    }
+
+    public Collection<AssignedResponsibility> getResponsibilities() {
+        return responsibilities;
+    }
+
+    public void setResponsibilities(Collection<AssignedResponsibility> responsibilities) {
+        this.responsibilities = responsibilities;
+    }
+}
@@ -0,0 +1,58 @@
+package server.sport.model;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+//An occurrence of a series in a calendar read. Occurrences which are not materialized have no activity or reservation, their ids are 0
+public class ActivityOccurrence extends ActivitySummary {
+
+    private int seriesId;
+    private Timestamp occurrenceStartAt;
+    private boolean materialized;
+
+    //a materialized occurrence, built by a query
+    public ActivityOccurrence(int activityId, String activityName, boolean isCancelled, String activityTypeName, Integer teamId, String teamName,
+                              int reservationId, Date startAt, Date endAt, Integer locationId, String courtName, int seriesId, Date occurrenceStartAt) {
+        super(activityId, activityName, isCancelled, activityTypeName, teamId, teamName, reservationId, startAt, endAt, locationId, courtName);
+        this.seriesId = seriesId;
+        this.occurrenceStartAt = new Timestamp(occurrenceStartAt.getTime());
+        this.materialized = true;
+    }
+
+    //an occurrence expanded from the series
+    public ActivityOccurrence(ActivitySeries series, Reservation timeFrame) {
+        super(0, series.getActivityName(), false, series.getActivityType().getActivityTypeName(), series.getTeam().getTeamId(),
+                series.getTeam().getTeamName(), 0, timeFrame.getStartAt(), timeFrame.getEndAt(), series.getLocation().getLocationId(),
+                series.getLocation().getCourtName());
+        this.seriesId = series.getSeriesId();
+        this.occurrenceStartAt = timeFrame.getStartAt();
+        this.materialized = false;
+    }
+
+    public ActivityOccurrence() {
+    }
+
+    public int getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(int seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public Timestamp getOccurrenceStartAt() {
+        return occurrenceStartAt;
+    }
+
+    public void setOccurrenceStartAt(Timestamp occurrenceStartAt) {
+        this.occurrenceStartAt = occurrenceStartAt;
+    }
+
+    public boolean getMaterialized() {
+        return materialized;
+    }
+
+    public void setMaterialized(boolean materialized) {
+        this.materialized = materialized;
+    }
+}
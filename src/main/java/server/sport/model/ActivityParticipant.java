@@ -0,0 +1,52 @@
+package server.sport.model;
+
+//Read-only view of a user and the answer they gave to an activity
+public class ActivityParticipant {
+
+    private int userId;
+    private String firstName;
+    private String lastName;
+    private String statusName;
+
+    public ActivityParticipant(int userId, String firstName, String lastName, String statusName) {
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.statusName = statusName;
+    }
+
+    public ActivityParticipant() {
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getStatusName() {
+        return statusName;
+    }
+
+    public void setStatusName(String statusName) {
+        this.statusName = statusName;
+    }
+}
@@ -0,0 +1,58 @@
+package server.sport.model;
+
+import java.util.List;
+
+/*
+ * Body of a bulk activity creation. The activity is the template of every created activity, its reservation
+ * gives the location. The time frames are either listed in reservations, or the time frame of the template
+ * reservation is repeated every repeatEveryDays days until there are occurrences of it.
+ */
+public class ActivitySchedule {
+
+    private Activity activity;
+    private List<Reservation> reservations;
+    private Integer repeatEveryDays;
+    private Integer occurrences;
+
+    public ActivitySchedule(Activity activity, List<Reservation> reservations, Integer repeatEveryDays, Integer occurrences) {
+        this.activity = activity;
+        this.reservations = reservations;
+        this.repeatEveryDays = repeatEveryDays;
+        this.occurrences = occurrences;
+    }
+
+    public ActivitySchedule() {
+    }
+
+    public Activity getActivity() {
+        return activity;
+    }
+
+    public void setActivity(Activity activity) {
+        this.activity = activity;
+    }
+
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(List<Reservation> reservations) {
+        this.reservations = reservations;
+    }
+
+    public Integer getRepeatEveryDays() {
+        return repeatEveryDays;
+    }
+
+    public void setRepeatEveryDays(Integer repeatEveryDays) {
+        this.repeatEveryDays = repeatEveryDays;
+    }
+
+    public Integer getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Integer occurrences) {
+        this.occurrences = occurrences;
+    }
+}
@@ -0,0 +1,217 @@
+package server.sport.model;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * A recurring activity, e.g. the weekly training of a team. Only the series is stored: its occurrences are
+ * expanded from the recurrence rule when they are read, and an occurrence becomes an Activity row with its
+ * own Reservation only when something about it differs from the series (a status, a responsibility, a cancellation).
+ * The first time frame gives the start of the series and the length of every occurrence.
+ */
+@Entity
+@EntityListeners(LocationAvailabilityListener.class)
+@Table(name = "activity_series")
+public class ActivitySeries {
+    private int seriesId;
+    private String activityName;
+    private Integer capacity;
+    private String description;
+    private String recurrenceRule;
+    private Timestamp firstStartAt;
+    private Timestamp firstEndAt;
+    private Timestamp lastEndAt;
+    private User creator;
+    private ActivityType activityType;
+    private Team team;
+    private Location location;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_series_seq")
+    @SequenceGenerator(name = "activity_series_seq", sequenceName = "activity_series_seq", allocationSize = 50)
+    @Column(name = "series_id", nullable = false)
+    public int getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(int seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    @Basic
+    @Column(name = "activity_name", nullable = false, length = 45)
+    public String getActivityName() {
+        return activityName;
+    }
+
+    public void setActivityName(String activityName) {
+        this.activityName = activityName;
+    }
+
+    @Basic
+    @Column(name = "capacity", nullable = true)
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    @Basic
+    @Column(name = "description", nullable = true, length = 450)
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Basic
+    @Column(name = "recurrence_rule", nullable = false, length = 200)
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    @Basic
+    @Column(name = "first_start_at", nullable = false)
+    public Timestamp getFirstStartAt() {
+        return firstStartAt;
+    }
+
+    public void setFirstStartAt(Timestamp firstStartAt) {
+        this.firstStartAt = firstStartAt;
+    }
+
+    @Basic
+    @Column(name = "first_end_at", nullable = false)
+    public Timestamp getFirstEndAt() {
+        return firstEndAt;
+    }
+
+    public void setFirstEndAt(Timestamp firstEndAt) {
+        this.firstEndAt = firstEndAt;
+    }
+
+    //end of the last occurrence, so the series touching a time frame are found without expanding every series
+    @Basic
+    @Column(name = "last_end_at", nullable = false)
+    public Timestamp getLastEndAt() {
+        return lastEndAt;
+    }
+
+    public void setLastEndAt(Timestamp lastEndAt) {
+        this.lastEndAt = lastEndAt;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "creator_id", referencedColumnName = "user_id", nullable = false)
+    public User getCreator() {
+        return creator;
+    }
+
+    public void setCreator(User creator) {
+        this.creator = creator;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activity_type_id", referencedColumnName = "activity_type_id", nullable = false)
+    public ActivityType getActivityType() {
+        return activityType;
+    }
+
+    public void setActivityType(ActivityType activityType) {
+        this.activityType = activityType;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id", referencedColumnName = "team_id", nullable = false)
+    public Team getTeam() {
+        return team;
+    }
+
+    public void setTeam(Team team) {
+        this.team = team;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id", referencedColumnName = "location_id", nullable = false)
+    public Location getLocation() {
+        return location;
+    }
+
+    public void setLocation(Location location) {
+        this.location = location;
+    }
+
+    //time frame of every occurrence ordered by start, throws IllegalArgumentException for an invalid rule
+    public List<Reservation> expand() {
+        Duration length = Duration.between(firstStartAt.toLocalDateTime(), firstEndAt.toLocalDateTime());
+        List<Reservation> occurrences = new ArrayList<>();
+        for (LocalDateTime start : RecurrenceRule.parse(recurrenceRule).occurrences(firstStartAt.toLocalDateTime())) {
+            occurrences.add(new Reservation(0, Timestamp.valueOf(start), Timestamp.valueOf(start.plus(length)), null, location));
+        }
+        return occurrences;
+    }
+
+    //the occurrences touching [from, until)
+    public List<Reservation> expandBetween(Timestamp from, Timestamp until) {
+        List<Reservation> occurrences = new ArrayList<>();
+        for (Reservation occurrence : expand()) {
+            if (!occurrence.getStartAt().before(until)) {
+                break;
+            }
+            if (occurrence.getEndAt().after(from)) {
+                occurrences.add(occurrence);
+            }
+        }
+        return occurrences;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ActivitySeries series = (ActivitySeries) o;
+
+        if (seriesId != series.seriesId) return false;
+        if (recurrenceRule != null ? !recurrenceRule.equals(series.recurrenceRule) : series.recurrenceRule != null)
+            return false;
+        return firstStartAt != null ? firstStartAt.equals(series.firstStartAt) : series.firstStartAt == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = seriesId;
+        result = 31 * result + (recurrenceRule != null ? recurrenceRule.hashCode() : 0);
+        result = 31 * result + (firstStartAt != null ? firstStartAt.hashCode() : 0);
+        return result;
+    }
+
+    public ActivitySeries(String activityName, Integer capacity, String description, String recurrenceRule, Timestamp firstStartAt,
+                          Timestamp firstEndAt, User creator, ActivityType activityType, Team team, Location location) {
+        this.activityName = activityName;
+        this.capacity = capacity;
+        this.description = description;
+        this.recurrenceRule = recurrenceRule;
+        this.firstStartAt = firstStartAt;
+        this.firstEndAt = firstEndAt;
+        this.creator = creator;
+        this.activityType = activityType;
+        this.team = team;
+        this.location = location;
+    }
+
+    public ActivitySeries() {
+    }
+}
@@ -0,0 +1,126 @@
+package server.sport.model;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+//Read-only view of an activity for lists, built directly by a query so no entity graph is loaded
+public class ActivitySummary {
+
+    private int activityId;
+    private String activityName;
+    private boolean isCancelled;
+    private String activityTypeName;
+    private Integer teamId;
+    private String teamName;
+    private int reservationId;
+    private Timestamp startAt;
+    private Timestamp endAt;
+    private Integer locationId;
+    private String courtName;
+
+    public ActivitySummary(int activityId, String activityName, boolean isCancelled, String activityTypeName, Integer teamId, String teamName, int reservationId, Date startAt, Date endAt, Integer locationId, String courtName) {
+        this.activityId = activityId;
+        this.activityName = activityName;
+        this.isCancelled = isCancelled;
+        this.activityTypeName = activityTypeName;
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.reservationId = reservationId;
+        //the query hands timestamp columns over as Date
+        this.startAt = new Timestamp(startAt.getTime());
+        this.endAt = new Timestamp(endAt.getTime());
+        this.locationId = locationId;
+        this.courtName = courtName;
+    }
+
+    public ActivitySummary() {
+    }
+
+    public int getActivityId() {
+        return activityId;
+    }
+
+    public void setActivityId(int activityId) {
+        this.activityId = activityId;
+    }
+
+    public String getActivityName() {
+        return activityName;
+    }
+
+    public void setActivityName(String activityName) {
+        this.activityName = activityName;
+    }
+
+    public boolean getIsCancelled() {
+        return isCancelled;
+    }
+
+    public void setIsCancelled(boolean isCancelled) {
+        this.isCancelled = isCancelled;
+    }
+
+    public String getActivityTypeName() {
+        return activityTypeName;
+    }
+
+    public void setActivityTypeName(String activityTypeName) {
+        this.activityTypeName = activityTypeName;
+    }
+
+    public Integer getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Integer teamId) {
+        this.teamId = teamId;
+    }
+
+    public String getTeamName() {
+        return teamName;
+    }
+
+    public void setTeamName(String teamName) {
+        this.teamName = teamName;
+    }
+
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(int reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Timestamp getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(Timestamp startAt) {
+        this.startAt = startAt;
+    }
+
+    public Timestamp getEndAt() {
+        return endAt;
+    }
+
+    public void setEndAt(Timestamp endAt) {
+        this.endAt = endAt;
+    }
+
+    public Integer getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(Integer locationId) {
+        this.locationId = locationId;
+    }
+
+    public String getCourtName() {
+        return courtName;
+    }
+
+    public void setCourtName(String courtName) {
+        this.courtName = courtName;
+    }
+}
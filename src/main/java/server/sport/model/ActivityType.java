@@ -1,12 +1,15 @@
 package server.sport.model;
 
-import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "activityTypes")
 /*
 @JsonIdentityInfo(
         generator = ObjectIdGenerators.PropertyGenerator.class,
@@ -18,8 +21,8 @@ public class ActivityType {
     private Collection<Activity> activities;
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_types_seq")
+    @SequenceGenerator(name = "activity_types_seq", sequenceName = "activity_types_seq", allocationSize = 50)
     @Column(name = "activity_type_id", nullable = false)
     public int getActivityTypeId() {
         return activityTypeId;
@@ -0,0 +1,62 @@
+package server.sport.model;
+
+//Read-only view of a responsibility of an activity and the user who took it, if anyone did
+public class AssignedResponsibility {
+
+    private int responsibilityId;
+    private String responsibilityName;
+    private Integer userId;
+    private String firstName;
+    private String lastName;
+
+    public AssignedResponsibility(int responsibilityId, String responsibilityName, Integer userId, String firstName, String lastName) {
+        this.responsibilityId = responsibilityId;
+        this.responsibilityName = responsibilityName;
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public AssignedResponsibility() {
+    }
+
+    public int getResponsibilityId() {
+        return responsibilityId;
+    }
+
+    public void setResponsibilityId(int responsibilityId) {
+        this.responsibilityId = responsibilityId;
+    }
+
+    public String getResponsibilityName() {
+        return responsibilityName;
+    }
+
+    public void setResponsibilityName(String responsibilityName) {
+        this.responsibilityName = responsibilityName;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+}
@@ -16,6 +16,10 @@ public class BasicUser {
         this.team = team;
     }
 
+    public BasicUser(int userId, String firstName, String lastName, String email, int teamId, String teamName, int sportId, String sportName) {
+        this(userId, firstName, lastName, email, new Team(teamId, teamName, sportId, sportName));
+    }
+
     public BasicUser() {
     }
 
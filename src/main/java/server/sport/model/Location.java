@@ -1,21 +1,27 @@
 package server.sport.model;
 
-import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
+@EntityListeners(LocationAvailabilityListener.class)
 @Table(name = "locations")
 public class Location {
     private int locationId;
     private String courtName; // Hall A Lyngby, Hall B Lynby, Gulbergsgade court, Rantzausgade needs to be UNIQUE values
+    private int version;
     private Collection<Reservation> reservations;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "locations_seq", allocationSize = 50)
     @Column(name = "location_id", nullable = false)
     public int getLocationId() {
         return locationId;
@@ -35,6 +41,17 @@ public class Location {
         this.courtName = courtName;
     }
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,42 @@
+package server.sport.model;
+
+//Free/busy slots of one location, busy is base64 of the slot bits - bit i is (byte[i / 8] >> (i % 8)) & 1, 1 means reserved
+public class LocationAvailability {
+
+    private int locationId;
+    private String courtName;
+    private String busy;
+
+    public LocationAvailability(int locationId, String courtName, String busy) {
+        this.locationId = locationId;
+        this.courtName = courtName;
+        this.busy = busy;
+    }
+
+    public LocationAvailability() {
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public String getCourtName() {
+        return courtName;
+    }
+
+    public void setCourtName(String courtName) {
+        this.courtName = courtName;
+    }
+
+    public String getBusy() {
+        return busy;
+    }
+
+    public void setBusy(String busy) {
+        this.busy = busy;
+    }
+}
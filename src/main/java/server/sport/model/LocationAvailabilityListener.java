@@ -0,0 +1,40 @@
+package server.sport.model;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import server.sport.service.LocationAvailabilityIndex;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+//Keeps LocationAvailabilityIndex in sync with every location, reservation and series written through JPA
+public class LocationAvailabilityListener {
+    @Autowired
+    LocationAvailabilityIndex locationAvailabilityIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Reservation) {
+            Reservation reservation = (Reservation) entity;
+            Integer locationId = reservation.getLocation() == null ? null : reservation.getLocation().getLocationId();
+            locationAvailabilityIndex.reservationSaved(reservation.getReservationId(), locationId,
+                    reservation.getStartAt(), reservation.getEndAt());
+        } else if (entity instanceof Location) {
+            locationAvailabilityIndex.locationSaved((Location) entity);
+        } else if (entity instanceof ActivitySeries) {
+            locationAvailabilityIndex.seriesSaved((ActivitySeries) entity);
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Reservation) {
+            locationAvailabilityIndex.reservationDeleted(((Reservation) entity).getReservationId());
+        } else if (entity instanceof Location) {
+            locationAvailabilityIndex.locationDeleted(((Location) entity).getLocationId());
+        } else if (entity instanceof ActivitySeries) {
+            locationAvailabilityIndex.seriesDeleted(((ActivitySeries) entity).getSeriesId());
+        }
+    }
+}
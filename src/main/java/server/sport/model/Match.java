@@ -1,6 +1,5 @@
 package server.sport.model;
 
-import org.hibernate.annotations.GenericGenerator;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import javax.persistence.*;
 import java.util.Objects;
@@ -14,8 +13,8 @@ public class Match {
     private Activity activity;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "matches_seq")
+    @SequenceGenerator(name = "matches_seq", sequenceName = "matches_seq", allocationSize = 50)
     @Column(name = "matches_id", nullable = false)
     public int getMatchesId() {
         return matchesId;
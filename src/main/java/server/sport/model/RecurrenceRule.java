@@ -0,0 +1,133 @@
+package server.sport.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/*
+ * The part of an iCalendar RRULE that activity series use, e.g. FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;COUNT=30
+ *  - FREQ is DAILY or WEEKLY, INTERVAL defaults to 1
+ *  - BYDAY only for WEEKLY, defaults to the day of the first occurrence, weeks start on Monday
+ *  - COUNT and/or UNTIL (yyyyMMdd or yyyyMMdd'T'HHmmss, local time) end the series, one of them is required
+ * Like DTSTART in iCalendar the start of the series is always its first occurrence.
+ * Occurrences are computed in local time, so a training at 17:00 stays at 17:00 across daylight saving changes.
+ */
+public class RecurrenceRule {
+    public static final int MAX_OCCURRENCES = 520;
+
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final List<String> DAYS = Arrays.asList("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+    private final boolean weekly;
+    private final int interval;
+    private final SortedSet<DayOfWeek> days;
+    private final Integer count;
+    private final LocalDateTime until;
+
+    private RecurrenceRule(boolean weekly, int interval, SortedSet<DayOfWeek> days, Integer count, LocalDateTime until) {
+        this.weekly = weekly;
+        this.interval = interval;
+        this.days = days;
+        this.count = count;
+        this.until = until;
+    }
+
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isEmpty()) {
+            throw new IllegalArgumentException("A series needs a recurrence rule");
+        }
+        Map<String, String> parts = new HashMap<>();
+        for (String part : rule.toUpperCase(Locale.ROOT).split(";")) {
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2 || parts.put(keyValue[0].trim(), keyValue[1].trim()) != null) {
+                throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+            }
+        }
+        String frequency = parts.remove("FREQ");
+        if (!"DAILY".equals(frequency) && !"WEEKLY".equals(frequency)) {
+            throw new IllegalArgumentException("Only FREQ=DAILY and FREQ=WEEKLY are supported: " + rule);
+        }
+        boolean weekly = frequency.equals("WEEKLY");
+        try {
+            int interval = parts.containsKey("INTERVAL") ? Integer.parseInt(parts.remove("INTERVAL")) : 1;
+            Integer count = parts.containsKey("COUNT") ? Integer.valueOf(parts.remove("COUNT")) : null;
+            LocalDateTime until = parts.containsKey("UNTIL") ? parseUntil(parts.remove("UNTIL")) : null;
+            SortedSet<DayOfWeek> days = new TreeSet<>();
+            if (parts.containsKey("BYDAY")) {
+                if (!weekly) {
+                    throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY: " + rule);
+                }
+                for (String day : parts.remove("BYDAY").split(",")) {
+                    int index = DAYS.indexOf(day.trim());
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Invalid day in recurrence rule: " + day);
+                    }
+                    days.add(DayOfWeek.of(index + 1));
+                }
+            }
+            if (!parts.isEmpty()) {
+                throw new IllegalArgumentException("Unsupported recurrence rule parts: " + parts.keySet());
+            }
+            if (interval < 1 || (count != null && count < 1)) {
+                throw new IllegalArgumentException("INTERVAL and COUNT must be above 0: " + rule);
+            }
+            if (count == null && until == null) {
+                throw new IllegalArgumentException("A series must end, add COUNT or UNTIL: " + rule);
+            }
+            return new RecurrenceRule(weekly, interval, days, count, until);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+        }
+    }
+
+    private static LocalDateTime parseUntil(String until) {
+        if (until.endsWith("Z")) {
+            until = until.substring(0, until.length() - 1);
+        }
+        return until.length() == 8 ? java.time.LocalDate.parse(until, UNTIL_DATE).atTime(23, 59, 59)
+                : LocalDateTime.parse(until, UNTIL_DATE_TIME);
+    }
+
+    //every occurrence of a series starting at first, in order, at most MAX_OCCURRENCES
+    public List<LocalDateTime> occurrences(LocalDateTime first) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        int limit = count == null ? MAX_OCCURRENCES + 1 : Math.min(count, MAX_OCCURRENCES + 1);
+        if (!weekly) {
+            for (LocalDateTime next = first; occurrences.size() < limit && !isAfterUntil(next); next = next.plusDays(interval)) {
+                occurrences.add(next);
+            }
+        } else {
+            SortedSet<DayOfWeek> weekDays = days.isEmpty() ? new TreeSet<>(Collections.singleton(first.getDayOfWeek())) : days;
+            LocalDateTime week = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            while (occurrences.size() < limit) {
+                for (DayOfWeek day : weekDays) {
+                    LocalDateTime next = week.with(TemporalAdjusters.nextOrSame(day));
+                    if (next.isBefore(first)) {
+                        continue;
+                    }
+                    if (isAfterUntil(next) || occurrences.size() == limit) {
+                        return checkLength(occurrences);
+                    }
+                    occurrences.add(next);
+                }
+                week = week.plusWeeks(interval);
+            }
+        }
+        return checkLength(occurrences);
+    }
+
+    private boolean isAfterUntil(LocalDateTime occurrence) {
+        return until != null && occurrence.isAfter(until);
+    }
+
+    private static List<LocalDateTime> checkLength(List<LocalDateTime> occurrences) {
+        if (occurrences.size() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("A series can have at most " + MAX_OCCURRENCES + " occurrences");
+        }
+        return occurrences;
+    }
+}
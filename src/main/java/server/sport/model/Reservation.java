@@ -1,13 +1,16 @@
 package server.sport.model;
 
-import org.hibernate.annotations.GenericGenerator;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import javax.persistence.*;
 import java.sql.Timestamp;
 import java.util.Objects;
 
 @Entity
-@Table(name = "reservations")
+@EntityListeners(LocationAvailabilityListener.class)
+//calendar and conflict reads of a location seek on the location and then range over the start
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_location_time", columnList = "location_id, start_at, end_at"),
+        @Index(name = "idx_reservations_time", columnList = "start_at, end_at")})
 public class Reservation {
     private int reservationId;
     private Timestamp startAt;
@@ -16,8 +19,8 @@ public class Reservation {
     private Location location;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     @Column(name = "reservation_id", nullable = false)
     public int getReservationId() {
         return reservationId;
@@ -0,0 +1,11 @@
+package server.sport.model;
+
+import java.sql.Timestamp;
+
+//Lightweight read of a reservation - only what is needed to know when a location is occupied
+public interface ReservationInterval {
+    int getReservationId();
+    int getLocationId();
+    Timestamp getStartAt();
+    Timestamp getEndAt();
+}
@@ -1,12 +1,15 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "responsibilities")
 @Table(name = "responsibilities")
 public class Responsibility {
     private int responsibilityId;
@@ -15,8 +18,8 @@ public class Responsibility {
     private Collection<UserResponsibility> userResponsibilities;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "responsibilities_seq")
+    @SequenceGenerator(name = "responsibilities_seq", sequenceName = "responsibilities_seq", allocationSize = 50)
     @Column(name = "responsibility_id", nullable = false)
     public int getResponsibilityId() {
         return responsibilityId;
@@ -1,25 +1,30 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sports")
 @Table(name = "sports")
 public class Sport {
     private int sportId;
     private String sportName;
+    private int version;
     @JsonBackReference(value = "sports-responsibilities")
     private Collection<Responsibility> responsibilities;
     @JsonBackReference(value = "sports-teams")
     private Collection<Team> teams;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sports_seq")
+    @SequenceGenerator(name = "sports_seq", sequenceName = "sports_seq", allocationSize = 50)
     @Column(name = "sport_id", nullable = false)
     public int getSportId() {
         return sportId;
@@ -39,6 +44,17 @@ public class Sport {
         this.sportName = sportName;
     }
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -60,6 +76,7 @@ public class Sport {
     }
 
     @OneToMany(mappedBy = "sport")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sports.responsibilities")
     public Collection<Responsibility> getResponsibilities() {
         return responsibilities;
     }
@@ -70,6 +87,7 @@ public class Sport {
 
     @JsonBackReference(value="sportTeams")
     @OneToMany(mappedBy = "sport")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sports.teams")
     public Collection<Team> getTeams() {
         return teams;
     }
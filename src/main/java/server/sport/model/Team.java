@@ -1,24 +1,29 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.Collection;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teams")
 @Table(name = "teams")
 public class Team {
     private int teamId;
     private String teamName;
+    private int version;
     private Sport sport;
     private Collection<User> users;
     private Collection<Activity> activities;
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teams_seq")
+    @SequenceGenerator(name = "teams_seq", sequenceName = "teams_seq", allocationSize = 50)
     @Column(name = "team_id", nullable = false)
     public int getTeamId() {
         return teamId;
@@ -38,6 +43,18 @@ public class Team {
         this.teamName = teamName;
     }
 
+    //bumped by Hibernate on every update, the ETags of the read endpoints are derived from it
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -93,6 +110,12 @@ public class Team {
         this.activities = activities;
     }
 
+    public Team(int teamId, String teamName, int sportId, String sportName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.sport = new Sport(sportId, sportName, null);
+    }
+
     public Team(String teamName, Sport sport, Collection<User> users) {
         this.teamName = teamName;
         this.sport = sport;
@@ -0,0 +1,96 @@
+package server.sport.model;
+
+import server.sport.enumerated.TeamEventType;
+
+import java.sql.Timestamp;
+
+//A change of an activity of a team, pushed to the members listening on /api/teams/{team_id}/events
+public class TeamEvent {
+
+    private TeamEventType type;
+    private int teamId;
+    private int activityId;
+    //set for a new series, its occurrences have no activity id until they are materialized
+    private Integer seriesId;
+    private Integer userId;
+    private String statusName;
+    private Timestamp at;
+
+    public TeamEvent(TeamEventType type, int teamId, int activityId, Integer userId, String statusName) {
+        this.type = type;
+        this.teamId = teamId;
+        this.activityId = activityId;
+        this.userId = userId;
+        this.statusName = statusName;
+        this.at = new Timestamp(System.currentTimeMillis());
+    }
+
+    public TeamEvent(TeamEventType type, int teamId, int activityId) {
+        this(type, teamId, activityId, null, null);
+    }
+
+    public static TeamEvent seriesCreated(int teamId, int seriesId) {
+        TeamEvent event = new TeamEvent(TeamEventType.ACTIVITY_CREATED, teamId, 0);
+        event.setSeriesId(seriesId);
+        return event;
+    }
+
+    public TeamEvent() {
+    }
+
+    public TeamEventType getType() {
+        return type;
+    }
+
+    public void setType(TeamEventType type) {
+        this.type = type;
+    }
+
+    public int getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(int teamId) {
+        this.teamId = teamId;
+    }
+
+    public int getActivityId() {
+        return activityId;
+    }
+
+    public void setActivityId(int activityId) {
+        this.activityId = activityId;
+    }
+
+    public Integer getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Integer seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getStatusName() {
+        return statusName;
+    }
+
+    public void setStatusName(String statusName) {
+        this.statusName = statusName;
+    }
+
+    public Timestamp getAt() {
+        return at;
+    }
+
+    public void setAt(Timestamp at) {
+        this.at = at;
+    }
+}
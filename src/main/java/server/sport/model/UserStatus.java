@@ -1,7 +1,6 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.util.Collection;
@@ -15,8 +14,8 @@ public class UserStatus {
     private Collection<ActivityStatus> activityStatus;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_statuses_seq")
+    @SequenceGenerator(name = "user_statuses_seq", sequenceName = "user_statuses_seq", allocationSize = 50)
     @Column(name = "status_id", nullable = false)
     public int getStatusId() {
         return statusId;
@@ -1,7 +1,6 @@
 package server.sport.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.util.Collection;
@@ -15,8 +14,8 @@ public class UserType {
     private Collection<User> users;
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO, generator = "native")
-    @GenericGenerator(name="native", strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_types_seq")
+    @SequenceGenerator(name = "user_types_seq", sequenceName = "user_types_seq", allocationSize = 50)
     @Column(name = "user_type_id", nullable = false)
     public int getUserTypeId() {
         return userTypeId;
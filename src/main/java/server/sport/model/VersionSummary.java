@@ -0,0 +1,12 @@
+package server.sport.model;
+
+/*
+ * Number of rows, highest id and sum of the versions of the rows a read endpoint is built from - one aggregate row.
+ * Ids come from sequences and versions only grow, so an added row raises the highest id, a removed one lowers the
+ * number of rows and an updated one raises the sum, which is enough to tell whether the endpoint would return something new.
+ */
+public interface VersionSummary {
+    long getRows();
+    int getMaxId();
+    long getVersions();
+}
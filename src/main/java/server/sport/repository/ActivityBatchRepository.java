@@ -0,0 +1,141 @@
+package server.sport.repository;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import server.sport.model.Activity;
+import server.sport.model.Match;
+import server.sport.model.Reservation;
+import server.sport.service.RsvpQueue;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Types;
+import java.util.*;
+
+/*
+ * Inserts the rows of a whole activity schedule with JDBC batches. The ids come from the sequences of the entities,
+ * through the same Hibernate generators as the entities saved by JPA, so both never hand out the same id.
+ */
+@Repository
+public class ActivityBatchRepository {
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    //ids in the order of the time frames
+    public List<Integer> insertReservations(int locationId, List<Reservation> timeFrames) {
+        List<Integer> ids = nextIds(Reservation.class, timeFrames.size());
+        Iterator<Integer> id = ids.iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO reservations (reservation_id, start_at, end_at, location_id) VALUES (?, ?, ?, ?)", timeFrames, BATCH_SIZE,
+                (statement, timeFrame) -> {
+                    statement.setInt(1, id.next());
+                    statement.setTimestamp(2, timeFrame.getStartAt());
+                    statement.setTimestamp(3, timeFrame.getEndAt());
+                    statement.setInt(4, locationId);
+                });
+        return ids;
+    }
+
+    //one activity per reservation, ids in the order of the reservations
+    public List<Integer> insertActivities(String activityName, Integer capacity, String description, int creatorId, int activityTypeId,
+                                          int teamId, List<Integer> reservationIds) {
+        List<Integer> ids = nextIds(Activity.class, reservationIds.size());
+        Iterator<Integer> id = ids.iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO activities (activity_id, activity_name, capacity, description, is_cancelled, creator_id, activity_type_id, team_id, reservation_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", reservationIds, BATCH_SIZE, (statement, reservationId) -> {
+            statement.setInt(1, id.next());
+            statement.setString(2, activityName);
+            statement.setObject(3, capacity, Types.INTEGER);
+            statement.setString(4, description);
+            statement.setBoolean(5, false);
+            statement.setInt(6, creatorId);
+            statement.setInt(7, activityTypeId);
+            statement.setInt(8, teamId);
+            statement.setInt(9, reservationId);
+        });
+        return ids;
+    }
+
+    /*
+     * Every member of the team gets the status of the new activity, in one INSERT ... SELECT. Through JdbcTemplate,
+     * a native query of Hibernate without query spaces would evict every region of the second-level cache.
+     * The activity may still wait in the persistence context, it is flushed first.
+     */
+    @Transactional
+    public int insertStatusForTeamMembers(int statusId, int activityId, int teamId) {
+        entityManager.flush();
+        return jdbcTemplate.update("INSERT INTO activity_statuses (status_id, user_id, activity_id) SELECT ?, u.user_id, ? FROM users u WHERE u.team_id = ?",
+                statusId, activityId, teamId);
+    }
+
+    //every member of the team of each activity gets the status, in one statement
+    public int insertStatusForTeamMembers(int statusId, List<Integer> activityIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("statusId", statusId).addValue("activityIds", activityIds);
+        return namedParameterJdbcTemplate.update("INSERT INTO activity_statuses (status_id, user_id, activity_id) " +
+                "SELECT :statusId, u.user_id, a.activity_id FROM activities a JOIN users u ON u.team_id = a.team_id " +
+                "WHERE a.activity_id IN (:activityIds)", parameters);
+    }
+
+    //the answers of a RSVP flush in one transaction, the previous status id of each answer or null when it updated no row
+    @Transactional
+    public List<Integer> updateStatuses(List<RsvpQueue.Rsvp> rsvps) {
+        Set<Integer> activityIds = new HashSet<>();
+        Set<Integer> userIds = new HashSet<>();
+        for (RsvpQueue.Rsvp rsvp : rsvps) {
+            activityIds.add(rsvp.getActivityId());
+            userIds.add(rsvp.getUserId());
+        }
+        //userId@activityId -> statusId, locked until the commit
+        Map<String, Integer> previous = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT user_id, activity_id, status_id FROM activity_statuses " +
+                        "WHERE activity_id IN (:activityIds) AND user_id IN (:userIds) FOR UPDATE",
+                new MapSqlParameterSource("activityIds", activityIds).addValue("userIds", userIds),
+                row -> {
+                    previous.put(row.getInt("user_id") + "@" + row.getInt("activity_id"), row.getInt("status_id"));
+                });
+        jdbcTemplate.batchUpdate("UPDATE activity_statuses SET status_id = ? WHERE activity_id = ? AND user_id = ?",
+                rsvps, BATCH_SIZE, (statement, rsvp) -> {
+                    statement.setInt(1, rsvp.getStatusId());
+                    statement.setInt(2, rsvp.getActivityId());
+                    statement.setInt(3, rsvp.getUserId());
+                });
+        List<Integer> statusIds = new ArrayList<>();
+        for (RsvpQueue.Rsvp rsvp : rsvps) {
+            statusIds.add(previous.get(rsvp.getUserId() + "@" + rsvp.getActivityId()));
+        }
+        return statusIds;
+    }
+
+    public void insertMatches(List<Integer> activityIds) {
+        Iterator<Integer> id = nextIds(Match.class, activityIds.size()).iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO matches (matches_id, activity_id) VALUES (?, ?)", activityIds, BATCH_SIZE,
+                (statement, activityId) -> {
+                    statement.setInt(1, id.next());
+                    statement.setInt(2, activityId);
+                });
+    }
+
+    //one round trip to the sequence per 50 ids, see the allocationSize of the entities
+    private List<Integer> nextIds(Class<?> entity, int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = session.getFactory().getMetamodel().entityPersister(entity).getIdentifierGenerator();
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((Integer) generator.generate(session, null));
+        }
+        return ids;
+    }
+}
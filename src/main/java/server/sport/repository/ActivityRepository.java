@@ -3,17 +3,65 @@ package server.sport.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import server.sport.model.Activity;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import server.sport.model.*;
 
+import javax.persistence.QueryHint;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
-public interface ActivityRepository extends JpaRepository<Activity, Integer> {
+public interface ActivityRepository extends JpaRepository<Activity, Integer>, ActivityRepositoryCustom {
     List<Activity> findAllActivitiesByTeamTeamId(int teamId);
     Page<Activity> findByActivityName(String activityName, Pageable paging);
     Page<Activity> findByCapacity(int capacity, Pageable paging);
     Page<Activity> findByActivityType(String activityType, Pageable paging);
     //List<Activity> findAll(int size);
 
+    String SUMMARIES_BY_TEAM = "SELECT new server.sport.model.ActivitySummary(a.activityId, a.activityName, a.isCancelled, t.activityTypeName, tm.teamId, tm.teamName, " +
+            "r.reservationId, r.startAt, r.endAt, l.locationId, l.courtName) " +
+            "FROM Activity a JOIN a.activityType t JOIN a.reservation r JOIN a.team tm LEFT JOIN r.location l " +
+            "WHERE tm.teamId = ?1 ORDER BY r.startAt, a.activityId";
+
+    @Query(SUMMARIES_BY_TEAM)
+    List<ActivitySummary> findSummariesByTeamId(int teamId);
+
+    //rows of activity id and team id
+    @Query("SELECT a.activityId, a.team.teamId FROM Activity a WHERE a.activityId IN ?1")
+    List<Object[]> findTeamIdsByActivityIds(Collection<Integer> activityIds);
+
+    //the same rows read from an open cursor, only a fetch worth of rows is in memory at a time
+    //must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(SUMMARIES_BY_TEAM)
+    Stream<ActivitySummary> streamSummariesByTeamId(int teamId);
+
+    @Query("SELECT new server.sport.model.ActivityDetail(a.activityId, a.activityName, a.isCancelled, t.activityTypeName, tm.teamId, tm.teamName, " +
+            "r.reservationId, r.startAt, r.endAt, l.locationId, l.courtName, a.capacity, a.description, c.userId, c.firstName, c.lastName, m.score) " +
+            "FROM Activity a JOIN a.activityType t JOIN a.reservation r JOIN a.creator c LEFT JOIN a.team tm LEFT JOIN r.location l LEFT JOIN a.match m " +
+            "WHERE a.activityId = ?1")
+    Optional<ActivityDetail> findDetailById(int activityId);
+
+    @Query("SELECT new server.sport.model.ActivityParticipant(u.userId, u.firstName, u.lastName, s.statusName) " +
+            "FROM ActivityStatus st JOIN st.user u JOIN st.userStatus s WHERE st.activityId = ?1 ORDER BY u.lastName, u.firstName")
+    List<ActivityParticipant> findParticipantsByActivityId(int activityId);
+
+    @Query("SELECT new server.sport.model.AssignedResponsibility(r.responsibilityId, r.responsibilityName, u.userId, u.firstName, u.lastName) " +
+            "FROM UserResponsibility ur JOIN ur.responsibility r LEFT JOIN ur.user u WHERE ur.activityId = ?1 ORDER BY r.responsibilityName")
+    List<AssignedResponsibility> findResponsibilitiesByActivityId(int activityId);
+
+    //the materialized occurrences of the series in the time frame, they replace the expanded ones
+    @Query("SELECT new server.sport.model.ActivityOccurrence(a.activityId, a.activityName, a.isCancelled, t.activityTypeName, tm.teamId, tm.teamName, " +
+            "r.reservationId, r.startAt, r.endAt, l.locationId, l.courtName, s.seriesId, a.occurrenceStartAt) " +
+            "FROM Activity a JOIN a.series s JOIN a.activityType t JOIN a.reservation r JOIN a.team tm LEFT JOIN r.location l " +
+            "WHERE s.seriesId IN ?1 AND a.occurrenceStartAt < ?3 AND r.endAt > ?2")
+    List<ActivityOccurrence> findOccurrencesBySeriesIds(Collection<Integer> seriesIds, Timestamp from, Timestamp until);
+
+    Optional<Activity> findBySeriesSeriesIdAndOccurrenceStartAt(int seriesId, Timestamp occurrenceStartAt);
+
 
 }
@@ -0,0 +1,14 @@
+package server.sport.repository;
+
+import server.sport.model.Activity;
+import server.sport.model.ActivityCursor;
+import server.sport.model.ActivitySummary;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface ActivityRepositoryCustom {
+    List<Activity> findActivitiesAfter(ActivityCursor cursor, int limit);
+
+    List<ActivitySummary> findCalendar(Timestamp from, Timestamp to, Integer teamId, Integer locationId);
+}
@@ -0,0 +1,90 @@
+package server.sport.repository;
+
+import org.springframework.data.domain.Sort;
+import server.sport.model.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ActivityRepositoryImpl implements ActivityRepositoryCustom {
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /*
+     * Keyset (seek) pagination: instead of skipping OFFSET rows it continues right after the last
+     * activity of the previous page, ordered by the sort field and the activity id as a tie breaker.
+     * No count query is needed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Activity> findActivitiesAfter(ActivityCursor cursor, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Activity> query = builder.createQuery(Activity.class);
+        Root<Activity> activity = query.from(Activity.class);
+
+        Path<Integer> activityId = activity.get("activityId");
+        Path<Comparable<Object>> sortKey = "startAt".equals(cursor.getSortField())
+                ? activity.join("reservation").get("startAt")
+                : activity.get(cursor.getSortField());
+        boolean ascending = cursor.getDirection() == Sort.Direction.ASC;
+
+        if (!cursor.isFirstPage()) {
+            Integer lastActivityId = cursor.getLastActivityId();
+            Comparable<Object> lastSortKey = (Comparable<Object>) cursor.getLastSortKey();
+            Predicate afterLastId = ascending ? builder.greaterThan(activityId, lastActivityId) : builder.lessThan(activityId, lastActivityId);
+            if ("activityId".equals(cursor.getSortField())) {
+                query.where(afterLastId);
+            } else {
+                Predicate afterLastKey = ascending ? builder.greaterThan(sortKey, lastSortKey) : builder.lessThan(sortKey, lastSortKey);
+                query.where(builder.or(afterLastKey, builder.and(builder.equal(sortKey, lastSortKey), afterLastId)));
+            }
+        }
+
+        if (ascending) {
+            query.orderBy(builder.asc(sortKey), builder.asc(activityId));
+        } else {
+            query.orderBy(builder.desc(sortKey), builder.desc(activityId));
+        }
+
+        return entityManager.createQuery(query.select(activity)).setMaxResults(limit).getResultList();
+    }
+
+    /*
+     * One-off activities with a reservation touching [from, to), of one team and/or at one location when given.
+     * Only the given filters are in the WHERE clause, so a location filter is answered from the
+     * (location_id, start_at, end_at) index of the reservations. Occurrences of series are left to the series.
+     */
+    @Override
+    public List<ActivitySummary> findCalendar(Timestamp from, Timestamp to, Integer teamId, Integer locationId) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ActivitySummary> query = builder.createQuery(ActivitySummary.class);
+        Root<Activity> activity = query.from(Activity.class);
+        Join<Activity, ActivityType> activityType = activity.join("activityType");
+        Join<Activity, Reservation> reservation = activity.join("reservation");
+        Join<Activity, Team> team = activity.join("team");
+        Join<Reservation, Location> location = reservation.join("location");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(builder.lessThan(reservation.<Timestamp>get("startAt"), to));
+        where.add(builder.greaterThan(reservation.<Timestamp>get("endAt"), from));
+        where.add(builder.isNull(activity.get("series")));
+        if (teamId != null) {
+            where.add(builder.equal(team.get("teamId"), teamId));
+        }
+        if (locationId != null) {
+            where.add(builder.equal(location.get("locationId"), locationId));
+        }
+
+        query.select(builder.construct(ActivitySummary.class, activity.get("activityId"), activity.get("activityName"),
+                activity.get("isCancelled"), activityType.get("activityTypeName"), team.get("teamId"), team.get("teamName"),
+                reservation.get("reservationId"), reservation.get("startAt"), reservation.get("endAt"),
+                location.get("locationId"), location.get("courtName")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(builder.asc(reservation.get("startAt")), builder.asc(activity.get("activityId")));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
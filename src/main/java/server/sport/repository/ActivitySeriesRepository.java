@@ -0,0 +1,38 @@
+package server.sport.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import server.sport.model.ActivitySeries;
+
+import javax.persistence.LockModeType;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+//the time frame queries return the series which may have occurrences in it, the occurrences are expanded by the caller
+public interface ActivitySeriesRepository extends JpaRepository<ActivitySeries, Integer> {
+
+    //a locking read for the conflict checks, see ReservationRepository.findOverlappingReservationIds
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ActivitySeries s WHERE s.location.locationId = ?1 AND s.firstStartAt < ?3 AND s.lastEndAt > ?2")
+    List<ActivitySeries> findAtLocationBetween(int locationId, Timestamp from, Timestamp until);
+
+    //the fetched associations are everything an expanded occurrence shows
+    @Query("SELECT s FROM ActivitySeries s JOIN FETCH s.activityType JOIN FETCH s.team JOIN FETCH s.location WHERE s.firstStartAt < ?2 AND s.lastEndAt > ?1")
+    List<ActivitySeries> findBetween(Timestamp from, Timestamp until);
+
+    @Query("SELECT s FROM ActivitySeries s JOIN FETCH s.activityType JOIN FETCH s.team t JOIN FETCH s.location WHERE t.teamId = ?1 AND s.firstStartAt < ?3 AND s.lastEndAt > ?2")
+    List<ActivitySeries> findForTeamBetween(int teamId, Timestamp from, Timestamp until);
+
+    @Query("SELECT s FROM ActivitySeries s JOIN FETCH s.activityType JOIN FETCH s.team JOIN FETCH s.location l WHERE l.locationId = ?1 AND s.firstStartAt < ?3 AND s.lastEndAt > ?2")
+    List<ActivitySeries> findForLocationBetween(int locationId, Timestamp from, Timestamp until);
+
+    @Query("SELECT s FROM ActivitySeries s JOIN FETCH s.activityType JOIN FETCH s.team t JOIN FETCH s.location l WHERE t.teamId = ?1 AND l.locationId = ?2 AND s.firstStartAt < ?4 AND s.lastEndAt > ?3")
+    List<ActivitySeries> findForTeamAtLocationBetween(int teamId, int locationId, Timestamp from, Timestamp until);
+
+    //serializes the materialization of the occurrences of one series
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ActivitySeries s WHERE s.seriesId = ?1")
+    Optional<ActivitySeries> findByIdForUpdate(int seriesId);
+}
@@ -1,15 +1,23 @@
 package server.sport.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import server.sport.model.ActivityStatus;
 import server.sport.model.ActivityStatusPK;
 
+import java.util.List;
+
 public interface ActivityStatusRepository extends JpaRepository<ActivityStatus, ActivityStatusPK> {
-    @Transactional
-    @Modifying
-    @Query(value = "UPDATE dbo.activity_statuses SET status_id=?1 WHERE activity_id = ?2 AND user_id = ?3", nativeQuery = true)
-    int saveNewActivityStatus(int status_id, int activity_id, int user_id);
+    //rows of activity id, status id and count - the counts of RsvpTally are read in a transaction of their own,
+    //a snapshot taken earlier by the caller's transaction would miss writes the tally already counted
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT s.activityId, s.statusId, COUNT(s) FROM ActivityStatus s GROUP BY s.activityId, s.statusId")
+    List<Object[]> countByActivityAndStatus();
+
+    //rows of status id and count, in a transaction of its own like the query above
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT s.statusId, COUNT(s) FROM ActivityStatus s WHERE s.activityId = ?1 GROUP BY s.statusId")
+    List<Object[]> countByStatusForActivity(int activityId);
 }
@@ -0,0 +1,59 @@
+package server.sport.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/*
+ * Moves the id sequences of the entities past the highest id of their tables. The tables were filled with
+ * AUTO_INCREMENT ids before the entities used sequences. Runs at startup, before the web server takes requests,
+ * and a sequence is only ever moved forward.
+ */
+@Component
+public class IdSequenceAligner implements SmartInitializingSingleton {
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    //after the singletons, the entity manager factory is built in the background and creates its entity listeners
+    @Override
+    public void afterSingletonsInstantiated() {
+        align();
+    }
+
+    public void align() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (!(persister.getIdentifierGenerator() instanceof SequenceStyleGenerator)) {
+                continue;
+            }
+            DatabaseStructure sequence = ((SequenceStyleGenerator) persister.getIdentifierGenerator()).getDatabaseStructure();
+            AbstractEntityPersister table = (AbstractEntityPersister) persister;
+            long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + table.getIdentifierColumnNames()[0] + "), 0) + 1 FROM "
+                    + table.getTableName(), Long.class);
+            if (nextId == 1) {
+                continue;
+            }
+            if (sequence.isPhysicalSequence()) {
+                //reading the next value costs one block of ids, the sequence is restarted only when it is behind
+                if (jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence.getName()), Long.class) < nextId) {
+                    jdbcTemplate.execute("ALTER SEQUENCE " + sequence.getName() + " RESTART WITH " + nextId);
+                }
+            } else {
+                jdbcTemplate.update("UPDATE " + sequence.getName() + " SET next_val = ? WHERE next_val < ?", nextId, nextId);
+            }
+        }
+    }
+}
@@ -2,9 +2,14 @@ package server.sport.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import server.sport.model.Location;
+import server.sport.model.VersionSummary;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
@@ -15,6 +20,16 @@ public interface LocationRepository extends JpaRepository<Location, Integer> {
     List<Location> findDistinctByReservationsStartAtBeforeAndReservationsEndAtAfter(Timestamp endAt, Timestamp startAt);
     Optional<Location> findLocationByCourtName(String courtName);
     Optional<Location> findLocationByCourtNameOrLocationId(String courtName, Integer locationId);
+    //served from the query cache until the locations table is written
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Location> findByCourtName(String courtName);
     List<Location> deleteById (int locationId);
+
+    //row lock on one location, held until the transaction ends - bookings of other locations are not blocked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Location l WHERE l.locationId = ?1")
+    Optional<Location> findByIdForUpdate(int locationId);
+
+    @Query("SELECT COUNT(l) AS rows, COALESCE(MAX(l.locationId), 0) AS maxId, COALESCE(SUM(l.version), 0) AS versions FROM Location l")
+    VersionSummary summarizeVersions();
 }
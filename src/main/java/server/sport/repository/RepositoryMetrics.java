@@ -0,0 +1,128 @@
+package server.sport.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Times every call of the repositories in this package as repository.invocations, tagged with the bean name,
+ * the method and the outcome - the count of a timer is the number of calls. The timers are looked up once per
+ * method, a call costs two nanoTime reads, a map lookup and setting the current method for SlowQueryLog.
+ * The timing includes the transaction of the repository.
+ */
+@Component
+public class RepositoryMetrics implements BeanPostProcessor {
+    static final String METRIC = "repository.invocations";
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    //resolved on the first call, a post processor must not pull the registry in early
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = AopUtils.getTargetClass(bean);
+        boolean repository = bean instanceof org.springframework.data.repository.Repository
+                || (type.isAnnotationPresent(Repository.class) && type.getPackage().getName().equals(getClass().getPackage().getName()));
+        if (!repository) {
+            return bean;
+        }
+        TimingInterceptor interceptor = new TimingInterceptor(beanName);
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            //first, so the time includes the transaction around the call
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(!(bean instanceof org.springframework.data.repository.Repository));
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    //repository bean and method of the call running on this thread, e.g. activityRepository.findCalendar - see SlowQueryLog
+    public static String currentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+        private final String repository;
+        private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            MethodMeters methodMeters = meters.get(method);
+            if (methodMeters == null) {
+                methodMeters = meters.computeIfAbsent(method, key -> new MethodMeters(repository, key));
+            }
+            String caller = CURRENT_METHOD.get();
+            CURRENT_METHOD.set(methodMeters.name);
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                methodMeters.successes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                methodMeters.failures().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            } finally {
+                CURRENT_METHOD.set(caller);
+            }
+        }
+    }
+
+    private final class MethodMeters {
+        private final String repository;
+        private final Method method;
+        private final String name;
+        private final Timer successes;
+        private volatile Timer failures;
+
+        MethodMeters(String repository, Method method) {
+            this.repository = repository;
+            this.method = method;
+            this.name = repository + "." + method.getName();
+            this.successes = timer("success");
+        }
+
+        //failures are rare, their timer is only registered once one happens
+        Timer failures() {
+            if (failures == null) {
+                failures = timer("error");
+            }
+            return failures;
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder(METRIC)
+                    .description("Calls of repository methods")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry.getObject());
+        }
+    }
+}
@@ -1,12 +1,38 @@
 package server.sport.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import server.sport.model.Reservation;
+import server.sport.model.ReservationInterval;
 import server.sport.model.Sport;
 
+import javax.persistence.LockModeType;
+import java.sql.Timestamp;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository <Reservation, Integer> {
 
     List<Reservation> findByReservationId(int reservationId);
+
+    //only the time frame and the location, so the activity of each reservation is not loaded
+    @Query("SELECT r.reservationId AS reservationId, l.locationId AS locationId, r.startAt AS startAt, r.endAt AS endAt " +
+            "FROM Reservation r JOIN r.location l")
+    List<ReservationInterval> findAllIntervals();
+
+    /*
+     * The conflict checks read with FOR UPDATE: a locking read sees the latest committed rows, while a plain read
+     * under MySQL's REPEATABLE READ sees the snapshot taken by the first read of the transaction, which may be older
+     * than the reservation the booking waited for on the location lock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.reservationId FROM Reservation r " +
+            "WHERE r.location.locationId = ?1 AND r.startAt < ?3 AND r.endAt > ?2 ORDER BY r.startAt")
+    List<Integer> findOverlappingReservationIds(int locationId, Timestamp startAt, Timestamp endAt);
+
+    //every reservation of a location touching the time frame - one query for a whole schedule, locking like the one above
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.reservationId AS reservationId, l.locationId AS locationId, r.startAt AS startAt, r.endAt AS endAt " +
+            "FROM Reservation r JOIN r.location l WHERE l.locationId = ?1 AND r.startAt < ?3 AND r.endAt > ?2 ORDER BY r.startAt")
+    List<ReservationInterval> findIntervalsAtLocation(int locationId, Timestamp from, Timestamp until);
 }
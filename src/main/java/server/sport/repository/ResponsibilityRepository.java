@@ -2,12 +2,16 @@ package server.sport.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import server.sport.model.Responsibility;
 import server.sport.model.Sport;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 public interface ResponsibilityRepository extends JpaRepository<Responsibility, Integer> {
+    //served from the query cache until the responsibilities table is written
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Responsibility> findAllBySport(Sport sport);
 }
@@ -0,0 +1,78 @@
+package server.sport.repository;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Logs the statements slower than sql.log.slow-threshold-ms with their bind parameters, the repository method
+ * which ran them and the elapsed time, and a sample of sql.log.sample-rate of the others.
+ * The data source is wrapped with datasource-proxy, so JdbcTemplate statements are logged as well.
+ * The logger server.sport.sql writes through a bounded async appender (logback-spring.xml) which drops
+ * entries instead of blocking when it is full.
+ */
+@Component
+public class SlowQueryLog implements QueryExecutionListener, BeanPostProcessor, Ordered {
+    static final Logger log = LoggerFactory.getLogger("server.sport.sql");
+    //the parameters of a large batch would make one line of megabytes
+    static final int MAX_ENTRY_LENGTH = 4000;
+
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+
+    @Value("${sql.log.slow-threshold-ms:200}")
+    long slowThresholdMs;
+
+    @Value("${sql.log.sample-rate:0}")
+    double sampleRate;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return ProxyDataSourceBuilder.create(beanName, (DataSource) bean).listener(this).build();
+        }
+        return bean;
+    }
+
+    //wraps the pool after the other post processors, the Hikari metrics unwrap it
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= slowThresholdMs) {
+            if (log.isWarnEnabled()) {
+                log.warn("Slow query, {} ms in {}: {}", execInfo.getElapsedTime(), caller(), entry(execInfo, queryInfoList));
+            }
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && log.isInfoEnabled()) {
+            log.info("Sampled query, {} ms in {}: {}", execInfo.getElapsedTime(), caller(), entry(execInfo, queryInfoList));
+        }
+    }
+
+    private static String caller() {
+        String method = RepositoryMetrics.currentMethod();
+        return method == null ? "no repository" : method;
+    }
+
+    private String entry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String entry = entryCreator.getLogEntry(execInfo, queryInfoList, false, false);
+        return entry.length() <= MAX_ENTRY_LENGTH ? entry : entry.substring(0, MAX_ENTRY_LENGTH) + "... (" + entry.length() + " characters)";
+    }
+}
@@ -1,9 +1,10 @@
 package server.sport.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import server.sport.model.Sport;
+import server.sport.model.VersionSummary;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface SportRepository extends JpaRepository <Sport, Integer> {
@@ -11,4 +12,7 @@ public interface SportRepository extends JpaRepository <Sport, Integer> {
     Optional<Sport> findBySportName(String sportName);
 
     Optional<Sport> findSportBySportName(String sportsName);
-}
\ No newline at end of file
+
+    @Query("SELECT COUNT(s) AS rows, COALESCE(MAX(s.sportId), 0) AS maxId, COALESCE(SUM(s.version), 0) AS versions FROM Sport s")
+    VersionSummary summarizeVersions();
+}
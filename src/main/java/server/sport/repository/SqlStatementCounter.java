@@ -0,0 +1,22 @@
+package server.sport.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Counts the SQL statements Hibernate prepares on each thread, registered as the statement inspector
+ * of the session factory. The count only grows, a caller reads it before and after a piece of work -
+ * see SqlCountFilter. Statements of JdbcTemplate do not go through Hibernate and are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long current() {
+        return STATEMENTS.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+}
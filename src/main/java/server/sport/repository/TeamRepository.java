@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import server.sport.model.Team;
 import server.sport.model.User;
+import server.sport.model.VersionSummary;
 
 import java.util.Collection;
 import java.util.List;
@@ -11,12 +12,21 @@ import java.util.Optional;
 
 public interface TeamRepository extends JpaRepository<Team, Integer> {
 
-    //it takes user either way...
-    @Query(value = "SELECT t.team_id,t.team_name, t.sport_id, s.sport_name  " +
-            "FROM dbo.teams t JOIN dbo.sports s ON t.sport_id = s.sport_id", nativeQuery = true)
+    //detached teams with only their id, name and sport, users and activities are never loaded
+    @Query("SELECT new server.sport.model.Team(t.teamId, t.teamName, s.sportId, s.sportName) " +
+            "FROM Team t JOIN t.sport s ORDER BY t.teamId")
     List<Team> findTeamsWithoutUsers();
 
     Optional<Team> findTeamByTeamName(String teamName);
 
     Team findTeamByUsersContaining(User user);
+
+    //the versions of the sports are added in, a team shows the name of its sport
+    @Query("SELECT COUNT(t) AS rows, COALESCE(MAX(t.teamId), 0) AS maxId, COALESCE(SUM(t.version + s.version), 0) AS versions " +
+            "FROM Team t JOIN t.sport s")
+    VersionSummary summarizeVersions();
+
+    @Query("SELECT COUNT(t) AS rows, COALESCE(MAX(t.teamId), 0) AS maxId, COALESCE(SUM(t.version + s.version), 0) AS versions " +
+            "FROM Team t JOIN t.sport s WHERE t.teamId = ?1")
+    VersionSummary summarizeVersionsById(int teamId);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
+import server.sport.model.BasicUser;
 import server.sport.model.User;
 
 import java.util.List;
@@ -22,6 +23,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     List<User> findAllByTeamTeamId(int teamId);
 
+    //roster rows with their team and sport in one query, sorted by the user fields of the pageable
+    @Query(value = "SELECT new server.sport.model.BasicUser(u.userId, u.firstName, u.lastName, u.email, t.teamId, t.teamName, s.sportId, s.sportName) " +
+            "FROM User u JOIN u.team t JOIN t.sport s WHERE t.teamId = ?1",
+            countQuery = "SELECT COUNT(u) FROM User u WHERE u.team.teamId = ?1")
+    Page<BasicUser> findTeamRoster(int teamId, Pageable paging);
+
     @Transactional
     Optional<User> deleteByUserId (int userId);
 
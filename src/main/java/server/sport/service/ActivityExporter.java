@@ -0,0 +1,102 @@
+package server.sport.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import server.sport.model.ActivitySummary;
+import server.sport.repository.ActivityRepository;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+ * Writes the activity history of a team row by row while it is read from the database.
+ * The rows are projections, so nothing piles up in the persistence context, and the output
+ * is flushed every FLUSH_EVERY rows - memory stays the same however long the history is.
+ */
+@Component
+public class ActivityExporter {
+    private static final int FLUSH_EVERY = 500;
+    private static final String[] CSV_HEADER = {"activityId", "activityName", "isCancelled", "activityTypeName", "teamId", "teamName",
+            "reservationId", "startAt", "endAt", "locationId", "courtName"};
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    //one JSON object per line, in the same shape as the team activities endpoint
+    @Transactional(readOnly = true)
+    public int writeNdjson(int teamId, OutputStream out) throws IOException {
+        //a flush per row would send a network packet per row
+        ObjectWriter writer = objectMapper.writerFor(ActivitySummary.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int rows = 0;
+        try (Stream<ActivitySummary> activities = activityRepository.streamSummariesByTeamId(teamId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<ActivitySummary> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++rows % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public int writeCsv(int teamId, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(csv, (Object[]) CSV_HEADER);
+        int rows = 0;
+        try (Stream<ActivitySummary> activities = activityRepository.streamSummariesByTeamId(teamId)) {
+            Iterator<ActivitySummary> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                ActivitySummary activity = iterator.next();
+                writeCsvLine(csv, activity.getActivityId(), activity.getActivityName(), activity.getIsCancelled(), activity.getActivityTypeName(),
+                        activity.getTeamId(), activity.getTeamName(), activity.getReservationId(), instant(activity.getStartAt()),
+                        instant(activity.getEndAt()), activity.getLocationId(), activity.getCourtName());
+                if (++rows % FLUSH_EVERY == 0) {
+                    csv.flush();
+                }
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    private static String instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+
+    private static void writeCsvLine(Writer csv, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            if (values[i] != null) {
+                csv.write(escapeCsv(values[i].toString()));
+            }
+        }
+        csv.write("\r\n");
+    }
+
+    //RFC 4180 - quote fields with separators, quotes or line breaks and double the quotes inside
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
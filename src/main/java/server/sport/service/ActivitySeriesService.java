@@ -0,0 +1,159 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.sport.enumerated.TeamEventType;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ResourceNotFoundException;
+import server.sport.model.*;
+import server.sport.repository.ActivityRepository;
+import server.sport.repository.ActivitySeriesRepository;
+import server.sport.repository.ReservationRepository;
+import server.sport.repository.TeamRepository;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+@Service
+public class ActivitySeriesService {
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    ActivityService activityService;
+
+    @Autowired
+    ReservationConflictChecker reservationConflictChecker;
+
+    @Autowired
+    SeriesExpander seriesExpander;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    //one row for the whole series, its occurrences are checked against the reservations of the location like a schedule
+    @Transactional
+    public ResponseEntity<ActivitySeries> createSeries(ActivitySeries series){
+        if (series.getActivityName() == null || series.getCreator() == null || series.getActivityType() == null
+                || series.getTeam() == null || series.getLocation() == null) {
+            throw new EntityCannotBeProcessedExecption("Provide the name, creator, activity type, team and location of the series");
+        }
+        if (series.getFirstStartAt() == null || series.getFirstEndAt() == null || !series.getFirstStartAt().before(series.getFirstEndAt())) {
+            throw new EntityCannotBeProcessedExecption("A series needs a first time frame with a start which is before its end");
+        }
+        List<Reservation> occurrences = expand(series);
+
+        series.setCreator(activityService.getNewActivityCreator(series.getCreator()));
+        series.setActivityType(activityService.getNewActivityActivityType(series.getActivityType()));
+        series.setTeam(activityService.getNewActivityTeam(series.getTeam()));
+        series.setLocation(reservationConflictChecker.lockFreeLocation(series.getLocation().getLocationId(), occurrences));
+        series.setLastEndAt(occurrences.get(occurrences.size() - 1).getEndAt());
+
+        ActivitySeries _series = activitySeriesRepository.save(series);
+        eventPublisher.publishEvent(TeamEvent.seriesCreated(_series.getTeam().getTeamId(), _series.getSeriesId()));
+        return new ResponseEntity<>(_series, HttpStatus.CREATED);
+    }
+
+    //the occurrences of the series of the team in [from, until), materialized occurrences replace the expanded ones
+    public ResponseEntity<List<ActivityOccurrence>> getOccurrencesForTeam(int teamId, Timestamp from, Timestamp until){
+        if (from == null || until == null || !from.before(until)) {
+            throw new EntityCannotBeProcessedExecption("Provide a time frame with from before until");
+        }
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResourceNotFoundException("Not found with id = " + teamId);
+        }
+        List<ActivityOccurrence> occurrences = seriesExpander.expand(activitySeriesRepository.findForTeamBetween(teamId, from, until), from, until);
+        if (occurrences.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(occurrences, HttpStatus.OK);
+    }
+
+    /*
+     * Turns an occurrence into an Activity with its own Reservation, so it can get statuses and responsibilities
+     * through the activity endpoints. Materializing an occurrence again returns the same activity.
+     * The slot already belongs to the series, so the reservation is not checked for conflicts.
+     */
+    @Transactional
+    public ResponseEntity<ActivityOccurrence> materializeOccurrence(int seriesId, Timestamp startAt, boolean cancelled){
+        if (startAt == null) {
+            throw new EntityCannotBeProcessedExecption("Provide the start of the occurrence");
+        }
+        //waits for a concurrent materialization of the same series
+        ActivitySeries series = activitySeriesRepository.findByIdForUpdate(seriesId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found series with id = " + seriesId));
+        Reservation timeFrame = null;
+        for (Reservation occurrence : expand(series)) {
+            if (occurrence.getStartAt().getTime() == startAt.getTime()) {
+                timeFrame = occurrence;
+                break;
+            }
+        }
+        if (timeFrame == null) {
+            throw new EntityCannotBeProcessedExecption("The series with id = " + seriesId + " has no occurrence starting at " + startAt);
+        }
+
+        Optional<Activity> existing = activityRepository.findBySeriesSeriesIdAndOccurrenceStartAt(seriesId, timeFrame.getStartAt());
+        if (existing.isPresent()) {
+            Activity activity = existing.get();
+            if (cancelled) {
+                activity.setIsCancelled(true);
+                eventPublisher.publishEvent(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, activity.getTeam().getTeamId(), activity.getActivityId()));
+            }
+            return new ResponseEntity<>(toOccurrence(activity, seriesId), HttpStatus.OK);
+        }
+
+        Reservation reservation = reservationRepository.save(new Reservation(0, timeFrame.getStartAt(), timeFrame.getEndAt(), null, series.getLocation()));
+        Activity activity = new Activity();
+        activity.setActivityName(series.getActivityName());
+        activity.setCapacity(series.getCapacity());
+        activity.setDescription(series.getDescription());
+        activity.setIsCancelled(cancelled);
+        activity.setCreator(series.getCreator());
+        activity.setActivityType(series.getActivityType());
+        activity.setTeam(series.getTeam());
+        activity.setReservation(reservation);
+        activity.setSeries(series);
+        activity.setOccurrenceStartAt(timeFrame.getStartAt());
+        activity = activityRepository.save(activity);
+
+        //the same statuses and match row as an activity created on its own
+        activityService.insertNewActivityActivityStatuses(series.getTeam(), activity.getActivityId());
+        activityService.getNewActivityMatch(series.getActivityType(), activity);
+        if (cancelled) {
+            eventPublisher.publishEvent(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, series.getTeam().getTeamId(), activity.getActivityId()));
+        }
+
+        return new ResponseEntity<>(toOccurrence(activity, seriesId), HttpStatus.CREATED);
+    }
+
+    private List<Reservation> expand(ActivitySeries series){
+        try {
+            return series.expand();
+        } catch (IllegalArgumentException e) {
+            throw new EntityCannotBeProcessedExecption(e.getMessage());
+        }
+    }
+
+    private ActivityOccurrence toOccurrence(Activity activity, int seriesId){
+        Reservation reservation = activity.getReservation();
+        Location location = reservation.getLocation();
+        return new ActivityOccurrence(activity.getActivityId(), activity.getActivityName(), activity.getIsCancelled(),
+                activity.getActivityType().getActivityTypeName(), activity.getTeam().getTeamId(), activity.getTeam().getTeamName(),
+                reservation.getReservationId(), reservation.getStartAt(), reservation.getEndAt(), location.getLocationId(),
+                location.getCourtName(), seriesId, activity.getOccurrenceStartAt());
+    }
+}
@@ -1,23 +1,36 @@
 package server.sport.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import server.sport.enumerated.ActivityTypeEnum;
+import server.sport.enumerated.TeamEventType;
 import server.sport.enumerated.UserStatusesEnum;
+import server.sport.exception.EntityCannotBeProcessedExecption;
 import server.sport.model.*;
 import server.sport.repository.*;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.*;
 
 @Service
 public class ActivityService {
+    private static final int MAX_SCHEDULED_ACTIVITIES = 200;
+    private static final long MAX_CALENDAR_DAYS = 366;
+
     @Autowired
     ActivityRepository activityRepository;
 
@@ -51,6 +64,36 @@ public class ActivityService {
     @Autowired
     ActivityStatusRepository activityStatusRepository;
 
+    @Autowired
+    ReservationConflictChecker reservationConflictChecker;
+
+    @Autowired
+    RsvpQueue rsvpQueue;
+
+    @Autowired
+    RsvpTally rsvpTally;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    ActivityExporter activityExporter;
+
+    @Autowired
+    ActivityBatchRepository activityBatchRepository;
+
+    @Autowired
+    LocationAvailabilityIndex locationAvailabilityIndex;
+
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
+    @Autowired
+    SeriesExpander seriesExpander;
+
     private Sort.Direction getSortDirection (String direction){
 
         if (direction.equals("asc")){
@@ -92,21 +135,110 @@ public class ActivityService {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    public ResponseEntity<Activity> getActivityById(int activityId){
+    //Keyset pagination - continues after the activity encoded in the cursor, an empty cursor starts from the first page
+    public ResponseEntity<Map<String, Object>> getActivitiesAfterCursor(String cursor, int size, String[] sort){
+        if (size < 1) {
+            throw new EntityCannotBeProcessedExecption("Page size must be at least 1");
+        }
+        ActivityCursor activityCursor;
+        try {
+            if (cursor.isEmpty()) {
+                String[] order = sort[0].contains(",") ? sort[0].split(",") : sort;
+                activityCursor = ActivityCursor.first(order[0], getSortDirection(order[1]));
+            } else {
+                activityCursor = ActivityCursor.decode(cursor);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new EntityCannotBeProcessedExecption(e.getMessage() == null ? "Invalid cursor" : e.getMessage());
+        }
 
-        Activity activity = activityRepository.findById(activityId).orElseThrow(
+        //one extra row tells whether there is a next page, so no count query is needed
+        List<Activity> activities = new ArrayList<>(activityRepository.findActivitiesAfter(activityCursor, size + 1));
+        if (activities.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+
+        String nextCursor = null;
+        if (activities.size() > size) {
+            activities = activities.subList(0, size);
+            nextCursor = activityCursor.after(activities.get(size - 1)).encode();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("activities", activities);
+        response.put("nextCursor", nextCursor);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    public ResponseEntity<ActivityDetail> getActivityById(int activityId){
+        //three fixed queries instead of serializing the whole entity graph
+        ActivityDetail activity = activityRepository.findDetailById(activityId).orElseThrow(
                 () -> new server.sport.exception.ResourceNotFoundException("Not found with id = " + activityId));
+        List<ActivityParticipant> participants = activityRepository.findParticipantsByActivityId(activityId);
+        //answers which are not written yet
+        for (ActivityParticipant participant : participants) {
+            rsvpQueue.findPendingStatusName(participant.getUserId(), activityId).ifPresent(participant::setStatusName);
+        }
+        activity.setParticipants(participants);
+        activity.setResponsibilities(activityRepository.findResponsibilitiesByActivityId(activityId));
 
-        if (activity.equals(null)){
+        return new ResponseEntity<>(activity, HttpStatus.OK);
+    }
+
+    //users per status name, every known status is listed - served from RsvpTally
+    public ResponseEntity<Map<String, Long>> getTally(int activityId){
+        Map<Integer, Long> users = rsvpTally.getTally(activityId);
+        if (users.isEmpty() && !activityRepository.existsById(activityId)) {
+            throw new server.sport.exception.ResourceNotFoundException("Not found with id = " + activityId);
+        }
+        Map<String, Long> tally = new LinkedHashMap<>();
+        for (UserStatus status : referenceDataCache.findAllUserStatuses()) {
+            tally.put(status.getStatusName(), users.getOrDefault(status.getStatusId(), 0L));
+        }
+        return new ResponseEntity<>(tally, HttpStatus.OK);
+    }
+
+    public ResponseEntity<Collection<ActivitySummary>> getActivitiesForTeam(int teamId){
+        if (!teamRepository.existsById(teamId)) {
+            throw new server.sport.exception.ResourceNotFoundException("Not found with id = " + teamId);
+        }
+        Collection<ActivitySummary> activities = activityRepository.findSummariesByTeamId(teamId);
+
+        if (activities.isEmpty()){
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
-        return new ResponseEntity<>(activity, HttpStatus.OK);
+        return new ResponseEntity<>(activities, HttpStatus.OK);
     }
 
-    public ResponseEntity<Collection<Activity>> getActivitiesForTeam(int teamId){
-        Team team = teamRepository.findById(teamId).orElseThrow(
-                () -> new server.sport.exception.ResourceNotFoundException("Not found with id = " + teamId));
-        Collection <Activity> activities = team.getActivities();
+    /*
+     * Everything on the calendar in [from, to), for one team and/or one location when given.
+     * One-off activities come from one query over the window, occurrences of series are expanded
+     * and the materialized ones merged in - both ordered by start.
+     */
+    public ResponseEntity<List<ActivitySummary>> getCalendar(Timestamp from, Timestamp to, Integer teamId, Integer locationId){
+        if (from == null || to == null || !from.before(to)) {
+            throw new EntityCannotBeProcessedExecption("Provide a time frame with from before to");
+        }
+        if (to.getTime() - from.getTime() > MAX_CALENDAR_DAYS * 24 * 60 * 60 * 1000) {
+            throw new EntityCannotBeProcessedExecption("A calendar can show at most " + MAX_CALENDAR_DAYS + " days");
+        }
+        List<ActivitySummary> activities = new ArrayList<>(activityRepository.findCalendar(from, to, teamId, locationId));
+
+        List<ActivitySeries> series;
+        if (teamId != null && locationId != null) {
+            series = activitySeriesRepository.findForTeamAtLocationBetween(teamId, locationId, from, to);
+        } else if (teamId != null) {
+            series = activitySeriesRepository.findForTeamBetween(teamId, from, to);
+        } else if (locationId != null) {
+            series = activitySeriesRepository.findForLocationBetween(locationId, from, to);
+        } else {
+            series = activitySeriesRepository.findBetween(from, to);
+        }
+        if (!series.isEmpty()) {
+            activities.addAll(seriesExpander.expand(series, from, to));
+            activities.sort(Comparator.comparing(ActivitySummary::getStartAt));
+        }
 
         if (activities.isEmpty()){
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -114,6 +246,101 @@ public class ActivityService {
         return new ResponseEntity<>(activities, HttpStatus.OK);
     }
 
+    /*
+     * Creates every activity of a schedule in one transaction. The creator, type, team and location are resolved
+     * once, all time frames are checked against the reservations of the location in one query, and reservations,
+     * activities, statuses and matches are inserted in JDBC batches.
+     */
+    @Transactional
+    public ResponseEntity<List<ActivitySummary>> createActivities(ActivitySchedule schedule){
+        Activity template = schedule.getActivity();
+        if (template == null || template.getReservation() == null) {
+            throw new EntityCannotBeProcessedExecption("Provide the activity of the schedule with a reservation");
+        }
+        List<Reservation> timeFrames = getScheduleTimeFrames(schedule);
+
+        User user = getNewActivityCreator(template.getCreator());
+        ActivityType activityType = getNewActivityActivityType(template.getActivityType());
+        Team team = getNewActivityTeam(template.getTeam());
+        if (template.getReservation().getLocation() == null) {
+            throw new ResourceNotFoundException("Provide location information under reservation object. " +
+                    "Missing id if the location exist or a name of a new location");
+        }
+        Location location = reservationConflictChecker.lockFreeLocation(template.getReservation().getLocation().getLocationId(), timeFrames);
+
+        List<Integer> reservationIds = activityBatchRepository.insertReservations(location.getLocationId(), timeFrames);
+        List<Integer> activityIds = activityBatchRepository.insertActivities(template.getActivityName(), template.getCapacity(),
+                template.getDescription(), user.getUserId(), activityType.getActivityTypeId(), team.getTeamId(), reservationIds);
+
+        referenceDataCache.findUserStatusByName(UserStatusesEnum.HAS_NOT_ANSWERED.toString().replace('_', ' '))
+                .ifPresent(status -> {
+                    //all activities belong to the same team
+                    int inserted = activityBatchRepository.insertStatusForTeamMembers(status.getStatusId(), activityIds);
+                    rsvpTally.statusesInserted(activityIds, status.getStatusId(), inserted / activityIds.size());
+                });
+        if (activityType.getActivityTypeName().equals(ActivityTypeEnum.MATCH.toString())) {
+            activityBatchRepository.insertMatches(activityIds);
+        }
+
+        List<ActivitySummary> activities = new ArrayList<>();
+        for (int i = 0; i < timeFrames.size(); i++) {
+            Reservation timeFrame = timeFrames.get(i);
+            eventPublisher.publishEvent(new TeamEvent(TeamEventType.ACTIVITY_CREATED, team.getTeamId(), activityIds.get(i)));
+            //the batch bypasses JPA and its entity listeners
+            locationAvailabilityIndex.reservationSaved(reservationIds.get(i), location.getLocationId(), timeFrame.getStartAt(), timeFrame.getEndAt());
+            activities.add(new ActivitySummary(activityIds.get(i), template.getActivityName(), false, activityType.getActivityTypeName(),
+                    team.getTeamId(), team.getTeamName(), reservationIds.get(i), timeFrame.getStartAt(), timeFrame.getEndAt(),
+                    location.getLocationId(), location.getCourtName()));
+        }
+        return new ResponseEntity<>(activities, HttpStatus.CREATED);
+    }
+
+    //the listed time frames, or the time frame of the template repeated - days are added to the local time, so
+    //a training at 17:00 stays at 17:00 across a daylight saving change
+    private List<Reservation> getScheduleTimeFrames(ActivitySchedule schedule){
+        List<Reservation> timeFrames = new ArrayList<>();
+        if (schedule.getReservations() != null && !schedule.getReservations().isEmpty()) {
+            timeFrames.addAll(schedule.getReservations());
+        } else if (schedule.getRepeatEveryDays() != null && schedule.getOccurrences() != null) {
+            Reservation first = schedule.getActivity().getReservation();
+            if (schedule.getRepeatEveryDays() < 1 || schedule.getOccurrences() < 1 || first.getStartAt() == null || first.getEndAt() == null) {
+                throw new EntityCannotBeProcessedExecption("A repeated schedule needs a first time frame, repeatEveryDays and occurrences above 0");
+            }
+            for (int i = 0; i < schedule.getOccurrences() && i <= MAX_SCHEDULED_ACTIVITIES; i++) {
+                long days = (long) i * schedule.getRepeatEveryDays();
+                timeFrames.add(new Reservation(0, Timestamp.valueOf(first.getStartAt().toLocalDateTime().plusDays(days)),
+                        Timestamp.valueOf(first.getEndAt().toLocalDateTime().plusDays(days)), null, null));
+            }
+        } else {
+            throw new EntityCannotBeProcessedExecption("Provide the reservations of the schedule or repeatEveryDays and occurrences");
+        }
+        if (timeFrames.size() > MAX_SCHEDULED_ACTIVITIES) {
+            throw new EntityCannotBeProcessedExecption("A schedule can create at most " + MAX_SCHEDULED_ACTIVITIES + " activities");
+        }
+        return timeFrames;
+    }
+
+    //the body is written after the controller returns, on its own read-only transaction
+    public ResponseEntity<StreamingResponseBody> exportActivitiesForTeam(int teamId, String format){
+        if (!format.equals("ndjson") && !format.equals("csv")) {
+            throw new EntityCannotBeProcessedExecption("Can't export activities as: " + format);
+        }
+        if (!teamRepository.existsById(teamId)) {
+            throw new server.sport.exception.ResourceNotFoundException("Not found with id = " + teamId);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.builder("attachment").filename("team-" + teamId + "-activities." + format).build());
+        StreamingResponseBody body;
+        if (format.equals("csv")) {
+            headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+            body = out -> activityExporter.writeCsv(teamId, out);
+        } else {
+            headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+            body = out -> activityExporter.writeNdjson(teamId, out);
+        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
     public ResponseEntity<Activity> updateActivityInformation (int activityId, Responsibility responsibility){
 
         Responsibility responsibility1 = responsibilityRepository.findById(responsibility.getResponsibilityId()).orElseThrow(
@@ -126,19 +353,21 @@ public class ActivityService {
 
         Activity _activity = activityRepository.findById(activityId).orElseThrow(
                 () -> new server.sport.exception.ResourceNotFoundException("Not found with id = " + activityId));
+        if (_activity.getTeam() != null) {
+            eventPublisher.publishEvent(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, _activity.getTeam().getTeamId(), activityId));
+        }
 
         return (new ResponseEntity<>(_activity, HttpStatus.CREATED));
     }
 
-    private Location getNewActivityLocation(Location _location){
-        Location location;
-        try {
-            location = locationRepository.findById(_location.getLocationId()).get();
-        }catch(ResourceNotFoundException e){
+    private Location getNewActivityLocation(Reservation _reservation){
+        if (_reservation.getLocation() == null) {
             throw new ResourceNotFoundException("Provide location information under reservation object. " +
                     "Missing id if the location exist or a name of a new location");
         }
-        return location;
+        //locks the location until the reservation is committed and rejects overlapping reservations
+        return reservationConflictChecker.lockFreeLocation(_reservation.getLocation().getLocationId(),
+                _reservation.getStartAt(), _reservation.getEndAt());
     }
 
     private Reservation getNewActivityReservation(Location location, Reservation _reservation){
@@ -152,17 +381,17 @@ public class ActivityService {
         return reservation;
     }
 
-    private ActivityType getNewActivityActivityType(ActivityType _activityType){
+    ActivityType getNewActivityActivityType(ActivityType _activityType){
         ActivityType activityType;
 
-        activityType = activityTypeRepository.findById(_activityType.getActivityTypeId())
-                .orElse(activityTypeRepository.findActivityTypeByActivityTypeName(_activityType.getActivityTypeName()).
+        activityType = referenceDataCache.findActivityTypeById(_activityType.getActivityTypeId())
+                .orElseGet(() -> referenceDataCache.findActivityTypeByName(_activityType.getActivityTypeName()).
                         orElseThrow(() -> new ResourceNotFoundException("Activity type of a given id or given name doesn't exist")));
 
         return activityType;
     }
 
-    private User getNewActivityCreator(User _user){
+    User getNewActivityCreator(User _user){
         User user;
 
         user = userRepository.findById(_user.getUserId()).
@@ -170,14 +399,14 @@ public class ActivityService {
         return user;
     }
 
-    private Team getNewActivityTeam(Team _team){
+    Team getNewActivityTeam(Team _team){
         Team team;
         team = teamRepository.findById(_team.getTeamId()).orElseThrow(() ->
                 new ResourceNotFoundException("The team of the user doesn't exist"));
         return team;
     }
 
-    private Match getNewActivityMatch(ActivityType activityType, Activity activity){
+    Match getNewActivityMatch(ActivityType activityType, Activity activity){
         Match match;
         if(activityType.getActivityTypeName().equals(ActivityTypeEnum.MATCH.toString())) {
             match = new Match(activity);
@@ -188,21 +417,17 @@ public class ActivityService {
         return match;
     }
 
-    private Collection<ActivityStatus> getNewActivityActivityStatuses(Team team, int activityId) {
-        Collection<ActivityStatus> activityStatuses = new ArrayList<>();
-
-        List<User> players = userRepository.findAllByTeamTeamId(team.getTeamId());
-
-        for(User player : players){
-            activityStatuses.add(activityStatusRepository.save(new ActivityStatus(
-                    userStatusRepository.findByStatusName(UserStatusesEnum.HAS_NOT_ANSWERED.toString()).getStatusId(),
-                    player.getUserId(),
-                    activityId
-            )));
-        }
-        return activityStatuses;
+    void insertNewActivityActivityStatuses(Team team, int activityId) {
+        //status names are stored with spaces, HAS_NOT_ANSWERED -> HAS NOT ANSWERED
+        Optional<UserStatus> notAnswered = referenceDataCache.findUserStatusByName(UserStatusesEnum.HAS_NOT_ANSWERED.toString().replace('_', ' '));
+        //every player of the team starts as not answered, inserted in one INSERT ... SELECT
+        notAnswered.ifPresent(status -> {
+            int inserted = activityBatchRepository.insertStatusForTeamMembers(status.getStatusId(), activityId, team.getTeamId());
+            rsvpTally.statusesInserted(Collections.singletonList(activityId), status.getStatusId(), inserted);
+        });
     }
 
+    @Transactional
     public ResponseEntity<Activity> createActivity (Activity activity){
         User user;
         ActivityType activityType;
@@ -210,7 +435,6 @@ public class ActivityService {
         Reservation reservation;
         Team team;
         Match match;
-        Collection<ActivityStatus> activityStatuses;
 
         //Get a creator of the activity
         user = getNewActivityCreator(activity.getCreator());
@@ -218,8 +442,8 @@ public class ActivityService {
         //Get the activity Type
         activityType = getNewActivityActivityType(activity.getActivityType());
 
-        //Create a new reservation
-        location = getNewActivityLocation(activity.getReservation().getLocation());
+        //Get a free location for the reservation
+        location = getNewActivityLocation(activity.getReservation());
 
         //Get reservation object
         reservation = getNewActivityReservation(location, activity.getReservation());
@@ -227,8 +451,6 @@ public class ActivityService {
         //Get the team of the activity
         team = getNewActivityTeam(activity.getTeam());
 
-        //TODO Validate whether the location is free within the given time frames before saving it to the database
-
         activity.setActivityType(activityType);
         activity.setReservation(reservation);
         activity.setCreator(user);
@@ -240,6 +462,11 @@ public class ActivityService {
         try {
             Activity _activity = activityRepository.save(activity);
 
+            //Set every player of the team to not answered yet
+            insertNewActivityActivityStatuses(team, _activity.getActivityId());
+            //sent to the team once the activity is committed
+            eventPublisher.publishEvent(new TeamEvent(TeamEventType.ACTIVITY_CREATED, team.getTeamId(), _activity.getActivityId()));
+
             //Set a match object if activity Type match is present
             match = getNewActivityMatch(activityType, activity);
 
@@ -248,10 +475,6 @@ public class ActivityService {
                 Activity activityWithMatch = activityRepository.save(_activity);
                 return new ResponseEntity<>(activityWithMatch, HttpStatus.CREATED);
             }
-            //TODO return activity statuses - get users of a team and set everyone to - not answered yet - create enum for that.
-            //  activityStatuses = getNewActivityActivityStatuses(team, activity.getActivityId());
-            //  _activity.setActivityStatuses(activityStatuses);
-
             return new ResponseEntity<>(_activity, HttpStatus.CREATED);
         }catch(Exception e){
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
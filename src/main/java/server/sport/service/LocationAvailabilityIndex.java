@@ -0,0 +1,525 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.sport.model.ActivitySeries;
+import server.sport.model.Location;
+import server.sport.model.Reservation;
+import server.sport.model.ReservationInterval;
+import server.sport.repository.ActivitySeriesRepository;
+import server.sport.repository.LocationRepository;
+import server.sport.repository.ReservationRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ * In-memory index of the reservations of every location, so the court picker can find free courts
+ * without going to the database. Each location keeps its reservations in arrays sorted by start time,
+ * together with the running maximum of the end times. A location is busy between start and end if one
+ * of the reservations starting before end is still running at start - one binary search.
+ *
+ * For the booking grid every location also keeps a free/busy bitmap, one bit per SLOT_MINUTES slot, over a
+ * horizon of HORIZON_DAYS days from midnight today. A reservation change only recomputes the slots it touched.
+ *
+ * The occurrences of the series are kept in their own timelines, one entry per occurrence with the series id,
+ * so a series which is not materialized yet keeps its courts busy too.
+ *
+ * The index is loaded when the application is ready and kept current by LocationAvailabilityListener.
+ * Until it is loaded (isWarm() == false) callers have to use the repositories.
+ */
+@Component
+public class LocationAvailabilityIndex {
+    public static final int SLOT_MINUTES = 15;
+    public static final int HORIZON_DAYS = 90;
+    public static final long SLOT = SLOT_MINUTES * 60 * 1000L;
+    static final int HORIZON_SLOTS = HORIZON_DAYS * 24 * 60 / SLOT_MINUTES;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
+    //locationId -> location without the reservations collection, sorted so the output keeps id order
+    private final ConcurrentSkipListMap<Integer, Location> locations = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Timeline> timelines = new ConcurrentHashMap<>();
+    //reservationId -> locationId, needed to find the old timeline when a reservation is moved or deleted
+    private final Map<Integer, Integer> reservationLocations = new HashMap<>();
+    private final Map<Integer, Timeline> seriesTimelines = new ConcurrentHashMap<>();
+    //seriesId -> locationId
+    private final Map<Integer, Integer> seriesLocations = new HashMap<>();
+    private volatile Horizon horizon = new Horizon(Long.MIN_VALUE);
+
+    //changes that happen before the index is loaded are replayed on top of the loaded state
+    private List<Runnable> pendingChanges = new ArrayList<>();
+    private volatile boolean warm = false;
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load(locationRepository.findAll(), reservationRepository.findAllIntervals(), activitySeriesRepository.findAll());
+    }
+
+    public void load(Collection<Location> allLocations, Collection<ReservationInterval> intervals) {
+        load(allLocations, intervals, Collections.emptyList());
+    }
+
+    public synchronized void load(Collection<Location> allLocations, Collection<ReservationInterval> intervals, Collection<ActivitySeries> allSeries) {
+        locations.clear();
+        timelines.clear();
+        reservationLocations.clear();
+        seriesTimelines.clear();
+        seriesLocations.clear();
+
+        for (Location location : allLocations) {
+            locations.put(location.getLocationId(), copyOf(location));
+        }
+
+        Map<Integer, List<ReservationInterval>> byLocation = new HashMap<>();
+        for (ReservationInterval interval : intervals) {
+            byLocation.computeIfAbsent(interval.getLocationId(), id -> new ArrayList<>()).add(interval);
+            reservationLocations.put(interval.getReservationId(), interval.getLocationId());
+        }
+        for (Map.Entry<Integer, List<ReservationInterval>> entry : byLocation.entrySet()) {
+            timelines.put(entry.getKey(), Timeline.of(entry.getValue()));
+        }
+        for (ActivitySeries series : allSeries) {
+            int locationId = series.getLocation().getLocationId();
+            seriesTimelines.merge(locationId, Timeline.of(series.getSeriesId(), series.expand()), Timeline::with);
+            seriesLocations.put(series.getSeriesId(), locationId);
+        }
+        horizon = buildHorizon(today());
+
+        List<Runnable> changes = pendingChanges;
+        pendingChanges = null;
+        if (changes != null) {
+            changes.forEach(Runnable::run);
+        }
+        warm = true;
+    }
+
+    public List<Location> findFreeLocations(Timestamp startAt, Timestamp endAt) {
+        long start = startAt.getTime();
+        long end = endAt.getTime();
+        List<Location> freeLocations = new ArrayList<>();
+        for (Location location : locations.values()) {
+            if (!overlaps(timelines.get(location.getLocationId()), start, end)
+                    && !overlaps(seriesTimelines.get(location.getLocationId()), start, end)) {
+                freeLocations.add(location);
+            }
+        }
+        return freeLocations;
+    }
+
+    public List<Integer> findOverlappingReservationIds(int locationId, Timestamp startAt, Timestamp endAt) {
+        Timeline timeline = timelines.get(locationId);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+        return timeline.overlapping(startAt.getTime(), endAt.getTime());
+    }
+
+    /*
+     * Bit i of a location is set when the location is reserved or has an occurrence of a series during slot firstSlot + i, a slot is
+     * SLOT milliseconds counted from the epoch. Inside the horizon the bits are copied from the
+     * precomputed bitmaps, other windows are computed from the timelines.
+     */
+    public Map<Integer, BitSet> findBusySlots(long firstSlot, int slots) {
+        Horizon current = currentHorizon();
+        boolean inHorizon = firstSlot >= current.firstSlot && firstSlot + slots <= current.firstSlot + HORIZON_SLOTS;
+        Map<Integer, BitSet> busySlots = new LinkedHashMap<>();
+        for (Integer locationId : locations.keySet()) {
+            BitSet busy;
+            if (inHorizon) {
+                BitSet precomputed = current.busySlots.get(locationId);
+                int offset = (int) (firstSlot - current.firstSlot);
+                busy = precomputed == null ? new BitSet(slots) : precomputed.get(offset, offset + slots);
+            } else {
+                busy = new BitSet(slots);
+                markBusy(locationId, busy, firstSlot, slots, firstSlot * SLOT, (firstSlot + slots) * SLOT);
+            }
+            busySlots.put(locationId, busy);
+        }
+        return busySlots;
+    }
+
+    public Location findLocation(int locationId) {
+        return locations.get(locationId);
+    }
+
+    public void locationSaved(Location location) {
+        Location copy = copyOf(location);
+        afterCommit(() -> locations.put(copy.getLocationId(), copy));
+    }
+
+    public void locationDeleted(int locationId) {
+        afterCommit(() -> {
+            locations.remove(locationId);
+            horizon.busySlots.remove(locationId);
+            Timeline timeline = timelines.remove(locationId);
+            if (timeline != null) {
+                for (int reservationId : timeline.reservationIds) {
+                    reservationLocations.remove(reservationId);
+                }
+            }
+            Timeline seriesTimeline = seriesTimelines.remove(locationId);
+            if (seriesTimeline != null) {
+                for (int seriesId : seriesTimeline.reservationIds) {
+                    seriesLocations.remove(seriesId);
+                }
+            }
+        });
+    }
+
+    public void reservationSaved(int reservationId, Integer locationId, Timestamp startAt, Timestamp endAt) {
+        long start = startAt.getTime();
+        long end = endAt.getTime();
+        afterCommit(() -> {
+            removeReservation(reservationId);
+            //a reservation without a location does not occupy any court
+            if (locationId != null) {
+                timelines.compute(locationId, (id, timeline) ->
+                        (timeline == null ? Timeline.EMPTY : timeline).with(reservationId, start, end));
+                reservationLocations.put(reservationId, locationId);
+                refreshSlots(locationId, start, end);
+            }
+        });
+    }
+
+    public void reservationDeleted(int reservationId) {
+        afterCommit(() -> removeReservation(reservationId));
+    }
+
+    //the occurrences are expanded here, before the series can change
+    public void seriesSaved(ActivitySeries series) {
+        int seriesId = series.getSeriesId();
+        int locationId = series.getLocation().getLocationId();
+        Timeline occurrences = Timeline.of(seriesId, series.expand());
+        afterCommit(() -> {
+            removeSeries(seriesId);
+            if (occurrences.starts.length > 0) {
+                seriesTimelines.merge(locationId, occurrences, Timeline::with);
+                seriesLocations.put(seriesId, locationId);
+                refreshSlots(locationId, occurrences.starts[0], occurrences.maxEnds[occurrences.maxEnds.length - 1]);
+            }
+        });
+    }
+
+    public void seriesDeleted(int seriesId) {
+        afterCommit(() -> removeSeries(seriesId));
+    }
+
+    private void removeSeries(int seriesId) {
+        Integer locationId = seriesLocations.remove(seriesId);
+        Timeline timeline = locationId == null ? null : seriesTimelines.get(locationId);
+        if (timeline != null) {
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            for (int i = 0; i < timeline.reservationIds.length; i++) {
+                if (timeline.reservationIds[i] == seriesId) {
+                    start = Math.min(start, timeline.starts[i]);
+                    end = Math.max(end, timeline.ends[i]);
+                }
+            }
+            seriesTimelines.put(locationId, timeline.without(seriesId));
+            if (start < end) {
+                refreshSlots(locationId, start, end);
+            }
+        }
+    }
+
+    private void removeReservation(int reservationId) {
+        Integer locationId = reservationLocations.remove(reservationId);
+        Timeline timeline = locationId == null ? null : timelines.get(locationId);
+        if (timeline != null) {
+            int position = timeline.positionOf(reservationId);
+            timelines.put(locationId, timeline.without(reservationId));
+            if (position >= 0) {
+                refreshSlots(locationId, timeline.starts[position], timeline.ends[position]);
+            }
+        }
+    }
+
+    //the slots of [start, end) are recomputed from the timelines, other reservations of the location may cover them too
+    private void refreshSlots(int locationId, long start, long end) {
+        Horizon current = horizon;
+        if (current.firstSlot == Long.MIN_VALUE) {
+            return;
+        }
+        long horizonStart = current.firstSlot * SLOT;
+        long horizonEnd = (current.firstSlot + HORIZON_SLOTS) * SLOT;
+        if (end <= horizonStart || start >= horizonEnd) {
+            return;
+        }
+        long from = Math.max(Math.floorDiv(start, SLOT) * SLOT, horizonStart);
+        long to = Math.min((Math.floorDiv(end - 1, SLOT) + 1) * SLOT, horizonEnd);
+        BitSet previous = current.busySlots.get(locationId);
+        //readers may hold the previous bitmap, so it is copied and not changed
+        BitSet busy = previous == null ? new BitSet(HORIZON_SLOTS) : (BitSet) previous.clone();
+        busy.clear((int) (from / SLOT - current.firstSlot), (int) (to / SLOT - current.firstSlot));
+        markBusy(locationId, busy, current.firstSlot, HORIZON_SLOTS, from, to);
+        current.busySlots.put(locationId, busy);
+    }
+
+    private Horizon buildHorizon(long firstSlot) {
+        Horizon built = new Horizon(firstSlot);
+        Set<Integer> locationIds = new HashSet<>(timelines.keySet());
+        locationIds.addAll(seriesTimelines.keySet());
+        for (Integer locationId : locationIds) {
+            BitSet busy = new BitSet(HORIZON_SLOTS);
+            markBusy(locationId, busy, firstSlot, HORIZON_SLOTS, firstSlot * SLOT, (firstSlot + HORIZON_SLOTS) * SLOT);
+            built.busySlots.put(locationId, busy);
+        }
+        return built;
+    }
+
+    private void markBusy(int locationId, BitSet busy, long firstSlot, int slots, long from, long to) {
+        Timeline timeline = timelines.get(locationId);
+        if (timeline != null) {
+            timeline.markBusy(busy, firstSlot, slots, from, to);
+        }
+        Timeline seriesTimeline = seriesTimelines.get(locationId);
+        if (seriesTimeline != null) {
+            seriesTimeline.markBusy(busy, firstSlot, slots, from, to);
+        }
+    }
+
+    private static boolean overlaps(Timeline timeline, long start, long end) {
+        return timeline != null && timeline.overlaps(start, end);
+    }
+
+    //the horizon is moved on the first read of a new day
+    private Horizon currentHorizon() {
+        long today = today();
+        Horizon current = horizon;
+        if (current.firstSlot != today) {
+            synchronized (this) {
+                if (horizon.firstSlot != today) {
+                    horizon = buildHorizon(today);
+                }
+                current = horizon;
+            }
+        }
+        return current;
+    }
+
+    private static long today() {
+        return Math.floorDiv(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(), SLOT);
+    }
+
+    //the index must only see committed data, otherwise a rolled back booking would keep a court busy
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        } else {
+            change.run();
+        }
+    }
+
+    private static Location copyOf(Location location) {
+        return new Location(location.getLocationId(), location.getCourtName(), null);
+    }
+
+    //the bitmaps of one day's horizon, a bitmap is replaced and never changed once it is in the map
+    private static final class Horizon {
+        final long firstSlot;
+        final Map<Integer, BitSet> busySlots = new ConcurrentHashMap<>();
+
+        Horizon(long firstSlot) {
+            this.firstSlot = firstSlot;
+        }
+    }
+
+    //Immutable, a change creates a new timeline so readers never need a lock
+    static final class Timeline {
+        static final Timeline EMPTY = new Timeline(new int[0], new long[0], new long[0]);
+
+        final int[] reservationIds;
+        final long[] starts;
+        final long[] ends;
+        //maxEnds[i] = the latest end of the reservations 0..i
+        final long[] maxEnds;
+
+        private Timeline(int[] reservationIds, long[] starts, long[] ends) {
+            this.reservationIds = reservationIds;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static Timeline of(List<ReservationInterval> intervals) {
+            intervals.sort(Comparator.comparing(ReservationInterval::getStartAt));
+            int size = intervals.size();
+            int[] ids = new int[size];
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            for (int i = 0; i < size; i++) {
+                ReservationInterval interval = intervals.get(i);
+                ids[i] = interval.getReservationId();
+                starts[i] = interval.getStartAt().getTime();
+                ends[i] = interval.getEndAt().getTime();
+            }
+            return new Timeline(ids, starts, ends);
+        }
+
+        //the occurrences of a series are already ordered by start
+        static Timeline of(int seriesId, List<Reservation> occurrences) {
+            int size = occurrences.size();
+            int[] ids = new int[size];
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = seriesId;
+                starts[i] = occurrences.get(i).getStartAt().getTime();
+                ends[i] = occurrences.get(i).getEndAt().getTime();
+            }
+            return new Timeline(ids, starts, ends);
+        }
+
+        //merges two timelines in start order
+        Timeline with(Timeline other) {
+            int size = starts.length + other.starts.length;
+            int[] ids = new int[size];
+            long[] newStarts = new long[size];
+            long[] newEnds = new long[size];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < size; k++) {
+                Timeline from = j >= other.starts.length || (i < starts.length && starts[i] <= other.starts[j]) ? this : other;
+                int position = from == this ? i++ : j++;
+                ids[k] = from.reservationIds[position];
+                newStarts[k] = from.starts[position];
+                newEnds[k] = from.ends[position];
+            }
+            return new Timeline(ids, newStarts, newEnds);
+        }
+
+        Timeline with(int reservationId, long start, long end) {
+            int size = starts.length;
+            int position = lastStartingBefore(start + 1) + 1;
+            int[] ids = new int[size + 1];
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+            System.arraycopy(reservationIds, 0, ids, 0, position);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            ids[position] = reservationId;
+            newStarts[position] = start;
+            newEnds[position] = end;
+            System.arraycopy(reservationIds, position, ids, position + 1, size - position);
+            System.arraycopy(starts, position, newStarts, position + 1, size - position);
+            System.arraycopy(ends, position, newEnds, position + 1, size - position);
+            return new Timeline(ids, newStarts, newEnds);
+        }
+
+        int positionOf(int reservationId) {
+            for (int i = 0; i < reservationIds.length; i++) {
+                if (reservationIds[i] == reservationId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        //removes every entry of the id, a series has one per occurrence
+        Timeline without(int reservationId) {
+            int size = 0;
+            for (int id : reservationIds) {
+                if (id != reservationId) {
+                    size++;
+                }
+            }
+            if (size == reservationIds.length) {
+                return this;
+            }
+            int[] ids = new int[size];
+            long[] newStarts = new long[size];
+            long[] newEnds = new long[size];
+            int position = 0;
+            for (int i = 0; i < reservationIds.length; i++) {
+                if (reservationIds[i] != reservationId) {
+                    ids[position] = reservationIds[i];
+                    newStarts[position] = starts[i];
+                    newEnds[position] = ends[i];
+                    position++;
+                }
+            }
+            return new Timeline(ids, newStarts, newEnds);
+        }
+
+        //Same rule as the repository query: starts before end and ends after start
+        boolean overlaps(long start, long end) {
+            int last = lastStartingBefore(end);
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        List<Integer> overlapping(long start, long end) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = lastStartingBefore(end); i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start) {
+                    ids.add(reservationIds[i]);
+                }
+            }
+            return ids;
+        }
+
+        //sets the bits of the slots in [from, to) during which a reservation runs, bit 0 is firstSlot
+        void markBusy(BitSet busy, long firstSlot, int slots, long from, long to) {
+            for (int i = lastStartingBefore(to); i >= 0 && maxEnds[i] > from; i--) {
+                if (ends[i] > from) {
+                    long first = Math.floorDiv(Math.max(starts[i], from), SLOT) - firstSlot;
+                    long afterLast = Math.floorDiv(Math.min(ends[i], to) - 1, SLOT) + 1 - firstSlot;
+                    busy.set((int) Math.max(first, 0), (int) Math.min(afterLast, slots));
+                }
+            }
+        }
+
+        //index of the last reservation with start < time, -1 if there is none
+        private int lastStartingBefore(long time) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
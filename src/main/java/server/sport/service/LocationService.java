@@ -12,7 +12,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.model.ActivitySeries;
 import server.sport.model.Location;
+import server.sport.model.LocationAvailability;
+import server.sport.repository.ActivitySeriesRepository;
 import server.sport.repository.LocationRepository;
 
 import java.sql.Time;
@@ -26,6 +30,12 @@ public class LocationService {
     @Autowired
     LocationRepository locationRepository;
 
+    @Autowired
+    LocationAvailabilityIndex locationAvailabilityIndex;
+
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
     public ResponseEntity<List<Location>> getAllLocations (Timestamp startAt, Timestamp endAt) throws ParseException {
         List<Location> locations = new ArrayList<>();
         if (endAt != null && startAt != null && startAt.after(endAt)){
@@ -40,13 +50,25 @@ public class LocationService {
         if (endAt == null) {
             //get everything with no reservation, starting after inputted timestamp or ending before inputted timestamp
             locations = locationRepository.findDistinctByReservationsStartAtAfterOrReservationsEndAtBeforeOrReservationsIsNull(startAt, startAt);
+        } else if (locationAvailabilityIndex.isWarm()) {
+            //answered from memory, the index has the occurrences of the series too
+            locations = locationAvailabilityIndex.findFreeLocations(startAt, endAt);
         } else if (! (startAt == null && endAt == null)){
+            //index not loaded yet
             //get all locations that aren't available (as i couldn't negate the query..)
             List<Location> unavailableLocations = locationRepository.findDistinctByReservationsStartAtBeforeAndReservationsEndAtAfter(endAt, startAt);
             //get all locations
             locations = locationRepository.findAll();
             //remove unavailable locations
             locations.removeAll(unavailableLocations);
+            //occurrences of series which are not materialized have no reservation yet
+            Set<Integer> seriesLocationIds = new HashSet<>();
+            for (ActivitySeries series : activitySeriesRepository.findBetween(startAt, endAt)) {
+                if (!series.expandBetween(startAt, endAt).isEmpty()) {
+                    seriesLocationIds.add(series.getLocation().getLocationId());
+                }
+            }
+            locations.removeIf(location -> seriesLocationIds.contains(location.getLocationId()));
         }
 
         if(locations.isEmpty()) {
@@ -55,6 +77,51 @@ public class LocationService {
         return new ResponseEntity<>(locations, HttpStatus.OK);
     }
 
+    /*
+     * The booking grid of every location for [from, to) in one response, one bit per slot of
+     * LocationAvailabilityIndex.SLOT_MINUTES. from is rounded down and to is rounded up to a slot.
+     * The index marks the occurrences of series which are not materialized yet as well.
+     */
+    public ResponseEntity<Map<String, Object>> getAvailability(Timestamp from, Timestamp to) {
+        if (from == null || to == null || !from.before(to)) {
+            throw new EntityCannotBeProcessedExecption("Provide a time frame with from before to");
+        }
+        if (!locationAvailabilityIndex.isWarm()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        long firstSlot = Math.floorDiv(from.getTime(), LocationAvailabilityIndex.SLOT);
+        long slots = Math.floorDiv(to.getTime() - 1, LocationAvailabilityIndex.SLOT) + 1 - firstSlot;
+        if (slots > LocationAvailabilityIndex.HORIZON_SLOTS) {
+            throw new EntityCannotBeProcessedExecption("The availability can cover at most " + LocationAvailabilityIndex.HORIZON_DAYS + " days");
+        }
+        Timestamp windowStart = new Timestamp(firstSlot * LocationAvailabilityIndex.SLOT);
+        Timestamp windowEnd = new Timestamp((firstSlot + slots) * LocationAvailabilityIndex.SLOT);
+
+        Map<Integer, BitSet> busySlots = locationAvailabilityIndex.findBusySlots(firstSlot, (int) slots);
+
+        List<LocationAvailability> availability = new ArrayList<>();
+        int bytes = (int) ((slots + 7) / 8);
+        for (Map.Entry<Integer, BitSet> entry : busySlots.entrySet()) {
+            Location location = locationAvailabilityIndex.findLocation(entry.getKey());
+            if (location != null) {
+                //toByteArray drops the trailing free slots
+                availability.add(new LocationAvailability(location.getLocationId(), location.getCourtName(),
+                        Base64.getEncoder().encodeToString(Arrays.copyOf(entry.getValue().toByteArray(), bytes))));
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", windowStart);
+        response.put("slotMinutes", LocationAvailabilityIndex.SLOT_MINUTES);
+        response.put("slots", slots);
+        response.put("locations", availability);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    public String getLocationsTag() {
+        return VersionTags.of("locations", locationRepository.summarizeVersions());
+    }
+
     private Sort.Direction getSortDirection(String direction) {
         if (direction.equals("asc")) {
             return Sort.Direction.ASC;
@@ -0,0 +1,172 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import server.sport.model.ActivityType;
+import server.sport.model.Sport;
+import server.sport.model.UserStatus;
+import server.sport.model.UserType;
+import server.sport.repository.ActivityTypeRepository;
+import server.sport.repository.SportRepository;
+import server.sport.repository.UserStatusRepository;
+import server.sport.repository.UserTypeRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * Cache of the small tables that almost never change - user statuses, activity types, user types and sports.
+ * Every table is held as an immutable snapshot keyed by id and by name, so lookups need no locking.
+ * A lookup that misses falls back to the repository and reloads the table, so rows added outside
+ * of the services are picked up as well. Services that write one of these tables call the matching refresh.
+ *
+ * The cached entities are detached copies without their collections, they must not be modified.
+ */
+@Component
+public class ReferenceDataCache {
+    @Autowired
+    UserStatusRepository userStatusRepository;
+
+    @Autowired
+    ActivityTypeRepository activityTypeRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Table<UserStatus> userStatuses = new Table<>(UserStatus::getStatusId, UserStatus::getStatusName,
+            status -> new UserStatus(status.getStatusId(), status.getStatusName(), null));
+    private final Table<ActivityType> activityTypes = new Table<>(ActivityType::getActivityTypeId, ActivityType::getActivityTypeName,
+            ReferenceDataCache::copyOf);
+    private final Table<UserType> userTypes = new Table<>(UserType::getUserTypeId, UserType::getUserName,
+            userType -> new UserType(userType.getUserTypeId(), userType.getUserName(), null));
+    private final Table<Sport> sports = new Table<>(Sport::getSportId, Sport::getSportName,
+            sport -> new Sport(sport.getSportId(), sport.getSportName(), null, null));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        refreshUserStatuses();
+        refreshActivityTypes();
+        refreshUserTypes();
+        refreshSports();
+    }
+
+    public void refreshUserStatuses() {
+        userStatuses.load(userStatusRepository.findAll());
+    }
+
+    public void refreshActivityTypes() {
+        activityTypes.load(activityTypeRepository.findAll());
+    }
+
+    public void refreshUserTypes() {
+        userTypes.load(userTypeRepository.findAll());
+    }
+
+    public void refreshSports() {
+        sports.load(sportRepository.findAll());
+    }
+
+    public Optional<UserStatus> findUserStatusByName(String statusName) {
+        return lookup(userStatuses.byName.get(statusName),
+                () -> Optional.ofNullable(userStatusRepository.findByStatusName(statusName)), this::refreshUserStatuses, userStatuses);
+    }
+
+    //ordered by id
+    public List<UserStatus> findAllUserStatuses() {
+        List<UserStatus> statuses = new ArrayList<>(userStatuses.byId.values());
+        statuses.sort(Comparator.comparing(UserStatus::getStatusId));
+        return statuses;
+    }
+
+    public Optional<ActivityType> findActivityTypeById(int activityTypeId) {
+        return lookup(activityTypes.byId.get(activityTypeId),
+                () -> activityTypeRepository.findById(activityTypeId), this::refreshActivityTypes, activityTypes);
+    }
+
+    public Optional<ActivityType> findActivityTypeByName(String activityTypeName) {
+        return lookup(activityTypes.byName.get(activityTypeName),
+                () -> activityTypeRepository.findActivityTypeByActivityTypeName(activityTypeName), this::refreshActivityTypes, activityTypes);
+    }
+
+    public Optional<UserType> findUserTypeById(int userTypeId) {
+        return lookup(userTypes.byId.get(userTypeId),
+                () -> userTypeRepository.findById(userTypeId), this::refreshUserTypes, userTypes);
+    }
+
+    public Optional<Sport> findSportById(int sportId) {
+        return lookup(sports.byId.get(sportId),
+                () -> sportRepository.findById(sportId), this::refreshSports, sports);
+    }
+
+    public Optional<Sport> findSportByName(String sportName) {
+        return lookup(sports.byName.get(sportName),
+                () -> sportRepository.findBySportName(sportName), this::refreshSports, sports);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private <T> Optional<T> lookup(T cached, Supplier<Optional<T>> repositoryLookup, Runnable refresh, Table<T> table) {
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        Optional<T> loaded = repositoryLookup.get();
+        if (loaded.isPresent()) {
+            //the table changed since the last load
+            refresh.run();
+            return Optional.of(table.copy.apply(loaded.get()));
+        }
+        return loaded;
+    }
+
+    private static ActivityType copyOf(ActivityType activityType) {
+        ActivityType copy = new ActivityType();
+        copy.setActivityTypeId(activityType.getActivityTypeId());
+        copy.setActivityTypeName(activityType.getActivityTypeName());
+        return copy;
+    }
+
+    private static final class Table<T> {
+        private final Function<T, Integer> id;
+        private final Function<T, String> name;
+        private final Function<T, T> copy;
+        //replaced as a whole on every load
+        private volatile Map<Integer, T> byId = Collections.emptyMap();
+        private volatile Map<String, T> byName = Collections.emptyMap();
+
+        Table(Function<T, Integer> id, Function<T, String> name, Function<T, T> copy) {
+            this.id = id;
+            this.name = name;
+            this.copy = copy;
+        }
+
+        synchronized void load(Collection<T> rows) {
+            Map<Integer, T> newById = new HashMap<>();
+            Map<String, T> newByName = new HashMap<>();
+            for (T row : rows) {
+                T detached = copy.apply(row);
+                newById.put(id.apply(detached), detached);
+                newByName.put(name.apply(detached), detached);
+            }
+            byId = Collections.unmodifiableMap(newById);
+            byName = Collections.unmodifiableMap(newByName);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ReservationConflictException;
+import server.sport.exception.ResourceNotFoundException;
+import server.sport.model.ActivitySeries;
+import server.sport.model.Location;
+import server.sport.model.Reservation;
+import server.sport.model.ReservationInterval;
+import server.sport.repository.ActivitySeriesRepository;
+import server.sport.repository.LocationRepository;
+import server.sport.repository.ReservationRepository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class ReservationConflictChecker {
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
+    /*
+     * Locks the location row and checks that nothing is reserved there in the given time frame.
+     * It has to run in the transaction that saves the reservation: the lock is released on commit,
+     * so a second booking of the same location waits until the first one is committed. The reservations are then
+     * read with FOR UPDATE, which sees that commit also under REPEATABLE READ (MySQL's default), where a plain read
+     * returns the snapshot of the transaction's first read. H2 in the tests reads committed rows either way.
+     * Bookings of other locations take other row locks and are never blocked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Location lockFreeLocation(int locationId, Timestamp startAt, Timestamp endAt) {
+        checkTimeFrame(startAt, endAt);
+        Location location = lockLocation(locationId);
+
+        List<Integer> conflictingReservationIds = reservationRepository.findOverlappingReservationIds(locationId, startAt, endAt);
+        List<Integer> conflictingSeriesIds = findConflictingSeriesIds(locationId,
+                Collections.singletonList(new Reservation(0, startAt, endAt, null, null)));
+        if (!conflictingReservationIds.isEmpty() || !conflictingSeriesIds.isEmpty()) {
+            throw new ReservationConflictException("Location with id = " + locationId + " is already reserved between "
+                    + startAt + " and " + endAt, conflictingReservationIds, conflictingSeriesIds);
+        }
+        return location;
+    }
+
+    /*
+     * The same for a whole schedule: one lock and one query for all of its time frames.
+     * The time frames of the schedule must not overlap each other either.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Location lockFreeLocation(int locationId, List<Reservation> timeFrames) {
+        if (timeFrames.isEmpty()) {
+            throw new EntityCannotBeProcessedExecption("A schedule needs at least one time frame");
+        }
+        List<Reservation> sorted = new ArrayList<>(timeFrames);
+        for (Reservation timeFrame : sorted) {
+            checkTimeFrame(timeFrame.getStartAt(), timeFrame.getEndAt());
+        }
+        sorted.sort(Comparator.comparing(Reservation::getStartAt));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getStartAt().before(sorted.get(i - 1).getEndAt())) {
+                throw new EntityCannotBeProcessedExecption("The time frames starting at " + sorted.get(i - 1).getStartAt()
+                        + " and " + sorted.get(i).getStartAt() + " overlap");
+            }
+        }
+        Location location = lockLocation(locationId);
+
+        //both lists are ordered by start, one pass finds every reservation overlapping a time frame
+        List<ReservationInterval> reserved = reservationRepository.findIntervalsAtLocation(locationId,
+                sorted.get(0).getStartAt(), sorted.get(sorted.size() - 1).getEndAt());
+        List<Integer> conflictingReservationIds = new ArrayList<>();
+        int next = 0;
+        for (ReservationInterval reservation : reserved) {
+            while (next < sorted.size() && !sorted.get(next).getEndAt().after(reservation.getStartAt())) {
+                next++;
+            }
+            if (next < sorted.size() && sorted.get(next).getStartAt().before(reservation.getEndAt())) {
+                conflictingReservationIds.add(reservation.getReservationId());
+            }
+        }
+        List<Integer> conflictingSeriesIds = findConflictingSeriesIds(locationId, sorted);
+        if (!conflictingReservationIds.isEmpty() || !conflictingSeriesIds.isEmpty()) {
+            throw new ReservationConflictException("Location with id = " + locationId + " is already reserved during "
+                    + "the schedule", conflictingReservationIds, conflictingSeriesIds);
+        }
+        return location;
+    }
+
+    //the occurrences of a series hold the location too, before they are materialized as reservations
+    private List<Integer> findConflictingSeriesIds(int locationId, List<Reservation> sorted) {
+        Timestamp from = sorted.get(0).getStartAt();
+        Timestamp until = sorted.get(sorted.size() - 1).getEndAt();
+        List<Integer> conflictingSeriesIds = new ArrayList<>();
+        for (ActivitySeries series : activitySeriesRepository.findAtLocationBetween(locationId, from, until)) {
+            if (overlapsAny(sorted, series.expandBetween(from, until))) {
+                conflictingSeriesIds.add(series.getSeriesId());
+            }
+        }
+        return conflictingSeriesIds;
+    }
+
+    //both lists are ordered by start and neither overlaps itself
+    private static boolean overlapsAny(List<Reservation> timeFrames, List<Reservation> occurrences) {
+        int next = 0;
+        for (Reservation occurrence : occurrences) {
+            while (next < timeFrames.size() && !timeFrames.get(next).getEndAt().after(occurrence.getStartAt())) {
+                next++;
+            }
+            if (next < timeFrames.size() && timeFrames.get(next).getStartAt().before(occurrence.getEndAt())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkTimeFrame(Timestamp startAt, Timestamp endAt) {
+        if (startAt == null || endAt == null || !startAt.before(endAt)) {
+            throw new EntityCannotBeProcessedExecption("A reservation needs a start which is before its end");
+        }
+    }
+
+    private Location lockLocation(int locationId) {
+        return locationRepository.findByIdForUpdate(locationId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found location with id = " + locationId));
+    }
+}
@@ -21,9 +21,12 @@ public class ResponsibilityService {
     @Autowired
     SportRepository sportRepository;
 
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
     public ResponseEntity<List<Responsibility>> getListOfResponsibilitiesBySport(Integer sport_id) {
         try {
-            Optional<Sport> sport = sportRepository.findById(sport_id);
+            Optional<Sport> sport = referenceDataCache.findSportById(sport_id);
 
             if(sport.isPresent()) {
                 //Customize the message -> Sport not found
@@ -57,10 +60,11 @@ public class ResponsibilityService {
     public ResponseEntity<Responsibility> createResponsibility(Responsibility responsibility){
         try{
             String sport_name = responsibility.getSport().getSportName();
-            Optional<Sport> sport = sportRepository.findBySportName(sport_name);
+            Optional<Sport> sport = referenceDataCache.findSportByName(sport_name);
 
             if(sport.isPresent()){
                 Sport _sport = sportRepository.save(new Sport(responsibility.getSport().getSportName()));
+                referenceDataCache.refreshSports();
                 responsibility.setSport(_sport);
             }else{
                 responsibility.setSport(sport.get());
@@ -0,0 +1,200 @@
+package server.sport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import server.sport.enumerated.TeamEventType;
+import server.sport.model.TeamEvent;
+import server.sport.repository.ActivityBatchRepository;
+import server.sport.repository.ActivityRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Collects the answers of users to activities and writes them in one JDBC batch every rsvp.flush-interval-ms.
+ * Only the last answer of a user to an activity is written, the earlier ones complete with it.
+ * An answer stays pending until its row is written, so readers see either the pending or the stored answer.
+ * When the batch fails, the answers of callers who wait for the write fail with it. The other answers were
+ * already accepted, they stay pending and are retried after RETRY_DELAY_MS, doubled on every attempt, unless a
+ * newer answer replaced them. They are dropped after MAX_ATTEMPTS.
+ */
+@Component
+public class RsvpQueue {
+    static final int MAX_ATTEMPTS = 5;
+    static final long RETRY_DELAY_MS = 100;
+    private static final Logger log = LoggerFactory.getLogger(RsvpQueue.class);
+
+    @Autowired
+    ActivityBatchRepository activityBatchRepository;
+
+    @Autowired
+    RsvpTally rsvpTally;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    TeamEventBroadcaster teamEventBroadcaster;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<Long, Rsvp> pending = new ConcurrentHashMap<>();
+
+    //completes with the number of updated rows, 0 when the user has no status row in the activity
+    public CompletableFuture<Integer> enqueue(int userId, int activityId, int statusId, String statusName, boolean waiting) {
+        Rsvp rsvp = new Rsvp(userId, activityId, statusId, statusName, waiting);
+        Rsvp replaced = pending.put(key(userId, activityId), rsvp);
+        if (replaced != null) {
+            //a replaced answer which is being written completes on its own, completing it twice is a no-op
+            rsvp.flushed.whenComplete((rows, failure) -> {
+                if (failure != null) {
+                    replaced.flushed.completeExceptionally(failure);
+                } else {
+                    replaced.flushed.complete(rows);
+                }
+            });
+        }
+        return rsvp.flushed;
+    }
+
+    //the status name of the answer which is not written yet
+    public Optional<String> findPendingStatusName(int userId, int activityId) {
+        Rsvp rsvp = pending.get(key(userId, activityId));
+        return rsvp == null ? Optional.empty() : Optional.of(rsvp.statusName);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${rsvp.flush-interval-ms:50}")
+    public void flush() {
+        flush(false);
+    }
+
+    //answers waiting for a retry are written too
+    @PreDestroy
+    public void flushAll() {
+        flush(true);
+    }
+
+    private synchronized void flush(boolean all) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Rsvp> batch = new ArrayList<>();
+        for (Rsvp rsvp : pending.values()) {
+            if (all || rsvp.retryAt <= now) {
+                batch.add(rsvp);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            //the committed batch and the tally changes for it, no count of the tally is read in between
+            List<Integer> previousStatusIds = rsvpTally.write(() -> {
+                List<Integer> updated = activityBatchRepository.updateStatuses(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (updated.get(i) != null) {
+                        rsvpTally.statusChanged(batch.get(i).activityId, updated.get(i), batch.get(i).statusId);
+                    }
+                }
+                return updated;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                Rsvp rsvp = batch.get(i);
+                Integer previousStatusId = previousStatusIds.get(i);
+                //a newer answer replaced during the write stays for the next flush
+                pending.remove(key(rsvp.userId, rsvp.activityId), rsvp);
+                rsvp.flushed.complete(previousStatusId == null ? 0 : 1);
+            }
+            publishStatusChanges(batch, previousStatusIds);
+        } catch (RuntimeException e) {
+            for (Rsvp rsvp : batch) {
+                rsvp.attempts++;
+                if (rsvp.waiting || rsvp.attempts >= MAX_ATTEMPTS) {
+                    if (pending.remove(key(rsvp.userId, rsvp.activityId), rsvp) && !rsvp.waiting) {
+                        log.warn("Dropped the answer of user {} to activity {} after {} attempts", rsvp.userId, rsvp.activityId, rsvp.attempts, e);
+                    }
+                    rsvp.flushed.completeExceptionally(e);
+                } else {
+                    //a replaced answer is no longer pending, the newer one is written instead
+                    rsvp.retryAt = now + (RETRY_DELAY_MS << (rsvp.attempts - 1));
+                }
+            }
+        }
+    }
+
+    //the teams of the activities are only read when somebody listens
+    private void publishStatusChanges(List<Rsvp> batch, List<Integer> previousStatusIds) {
+        if (!teamEventBroadcaster.hasSubscribers()) {
+            return;
+        }
+        Set<Integer> activityIds = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (previousStatusIds.get(i) != null) {
+                activityIds.add(batch.get(i).activityId);
+            }
+        }
+        if (activityIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> teamIds = new HashMap<>();
+        for (Object[] row : activityRepository.findTeamIdsByActivityIds(activityIds)) {
+            teamIds.put((Integer) row[0], (Integer) row[1]);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Rsvp rsvp = batch.get(i);
+            Integer teamId = teamIds.get(rsvp.activityId);
+            if (previousStatusIds.get(i) != null && teamId != null) {
+                eventPublisher.publishEvent(new TeamEvent(TeamEventType.STATUS_CHANGED, teamId, rsvp.activityId, rsvp.userId, rsvp.statusName));
+            }
+        }
+    }
+
+    private static long key(int userId, int activityId) {
+        return ((long) userId << 32) | (activityId & 0xFFFFFFFFL);
+    }
+
+    public static final class Rsvp {
+        private final int userId;
+        private final int activityId;
+        private final int statusId;
+        private final String statusName;
+        //a caller waits for the write, the answer is not retried
+        private final boolean waiting;
+        private final CompletableFuture<Integer> flushed = new CompletableFuture<>();
+        //only changed by the flush
+        private int attempts;
+        private long retryAt;
+
+        Rsvp(int userId, int activityId, int statusId, String statusName, boolean waiting) {
+            this.userId = userId;
+            this.activityId = activityId;
+            this.statusId = statusId;
+            this.statusName = statusName;
+            this.waiting = waiting;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public int getActivityId() {
+            return activityId;
+        }
+
+        public int getStatusId() {
+            return statusId;
+        }
+    }
+}
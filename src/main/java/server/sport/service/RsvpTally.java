@@ -0,0 +1,154 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.sport.repository.ActivityStatusRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/*
+ * Number of users per status of every activity, so the tally of an activity needs no query.
+ * The counters are loaded from activity_statuses when the application is ready and changed by the services
+ * which write the statuses - seeding a new activity and the flushes of RsvpQueue - once the write is committed.
+ * An activity without counters is loaded on its first read.
+ * A write of statuses and the change of the counters for it hold the shared side of countLock, the counts are
+ * read on the exclusive side. So a count either misses a write whose change is applied to the read counters
+ * afterwards, or sees a write whose change was applied before, never both.
+ */
+@Component
+public class RsvpTally {
+    @Autowired
+    ActivityStatusRepository activityStatusRepository;
+
+    //activityId -> statusId -> users
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, LongAdder>> tallies = new ConcurrentHashMap<>();
+
+    private final ReentrantReadWriteLock countLock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        countLock.writeLock().lock();
+        try {
+            Map<Integer, ConcurrentHashMap<Integer, LongAdder>> loaded = new HashMap<>();
+            for (Object[] row : activityStatusRepository.countByActivityAndStatus()) {
+                LongAdder users = new LongAdder();
+                users.add((Long) row[2]);
+                loaded.computeIfAbsent((Integer) row[0], activityId -> new ConcurrentHashMap<>()).put((Integer) row[1], users);
+            }
+            tallies.clear();
+            tallies.putAll(loaded);
+        } finally {
+            countLock.writeLock().unlock();
+        }
+    }
+
+    //statusId -> users, empty when the activity has no statuses
+    public Map<Integer, Long> getTally(int activityId) {
+        ConcurrentHashMap<Integer, LongAdder> tally = tallies.get(activityId);
+        if (tally == null) {
+            tally = read(activityId);
+        }
+        Map<Integer, Long> users = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : tally.entrySet()) {
+            users.put(entry.getKey(), entry.getValue().sum());
+        }
+        return users;
+    }
+
+    /*
+     * Runs a write of statuses which commits on its own, together with the statusChanged calls for it.
+     * No count is read in between, the write should be short.
+     */
+    public <T> T write(Supplier<T> write) {
+        countLock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            countLock.readLock().unlock();
+        }
+    }
+
+    //users got their first status in new activities, in the current transaction
+    public void statusesInserted(Collection<Integer> activityIds, int statusId, long usersPerActivity) {
+        Runnable change = () -> {
+            for (Integer activityId : activityIds) {
+                counter(tallies.computeIfAbsent(activityId, id -> new ConcurrentHashMap<>()), statusId).add(usersPerActivity);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(() -> {
+                change.run();
+                return null;
+            });
+            return;
+        }
+        //from before the commit until the change is applied, a rolled back activity must not show up in the tally
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                countLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    locked = false;
+                    countLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    //a committed answer, called within write - activities which are not loaded yet read it on their first read
+    public void statusChanged(int activityId, int fromStatusId, int toStatusId) {
+        if (fromStatusId == toStatusId) {
+            return;
+        }
+        ConcurrentHashMap<Integer, LongAdder> tally = tallies.get(activityId);
+        if (tally != null) {
+            counter(tally, fromStatusId).decrement();
+            counter(tally, toStatusId).increment();
+        }
+    }
+
+    //concurrent first reads of an activity wait for each other, the later ones find the counters of the first
+    private ConcurrentHashMap<Integer, LongAdder> read(int activityId) {
+        countLock.writeLock().lock();
+        try {
+            ConcurrentHashMap<Integer, LongAdder> tally = tallies.get(activityId);
+            if (tally != null) {
+                return tally;
+            }
+            tally = new ConcurrentHashMap<>();
+            for (Object[] row : activityStatusRepository.countByStatusForActivity(activityId)) {
+                LongAdder users = new LongAdder();
+                users.add((Long) row[1]);
+                tally.put((Integer) row[0], users);
+            }
+            tallies.put(activityId, tally);
+            return tally;
+        } finally {
+            countLock.writeLock().unlock();
+        }
+    }
+
+    private static LongAdder counter(ConcurrentHashMap<Integer, LongAdder> tally, int statusId) {
+        return tally.computeIfAbsent(statusId, id -> new LongAdder());
+    }
+}
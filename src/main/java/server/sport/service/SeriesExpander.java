@@ -0,0 +1,43 @@
+package server.sport.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import server.sport.model.ActivityOccurrence;
+import server.sport.model.ActivitySeries;
+import server.sport.model.Reservation;
+import server.sport.repository.ActivityRepository;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+//Expands series into their occurrences in a time frame - the materialized occurrences are read in one query and replace the expanded ones
+@Component
+public class SeriesExpander {
+    @Autowired
+    ActivityRepository activityRepository;
+
+    //ordered by start, the series need their activity type, team and location loaded
+    public List<ActivityOccurrence> expand(List<ActivitySeries> series, Timestamp from, Timestamp until) {
+        if (series.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Integer> seriesIds = new HashSet<>();
+        for (ActivitySeries _series : series) {
+            seriesIds.add(_series.getSeriesId());
+        }
+        Map<String, ActivityOccurrence> materialized = new HashMap<>();
+        for (ActivityOccurrence occurrence : activityRepository.findOccurrencesBySeriesIds(seriesIds, from, until)) {
+            materialized.put(occurrence.getSeriesId() + "@" + occurrence.getOccurrenceStartAt().getTime(), occurrence);
+        }
+
+        List<ActivityOccurrence> occurrences = new ArrayList<>();
+        for (ActivitySeries _series : series) {
+            for (Reservation timeFrame : _series.expandBetween(from, until)) {
+                ActivityOccurrence occurrence = materialized.get(_series.getSeriesId() + "@" + timeFrame.getStartAt().getTime());
+                occurrences.add(occurrence != null ? occurrence : new ActivityOccurrence(_series, timeFrame));
+            }
+        }
+        occurrences.sort(Comparator.comparing(ActivityOccurrence::getOccurrenceStartAt).thenComparing(ActivityOccurrence::getSeriesId));
+        return occurrences;
+    }
+}
@@ -0,0 +1,62 @@
+package server.sport.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+//Meters read from counters the services keep anyway, nothing is recorded on the request path
+@Component
+public class SportMetrics implements MeterBinder {
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    RsvpQueue rsvpQueue;
+
+    @Autowired
+    TeamEventBroadcaster teamEventBroadcaster;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("reference.cache.requests", referenceDataCache, ReferenceDataCache::getHitCount)
+                .description("Lookups of the reference data cache").tag("result", "hit").register(registry);
+        FunctionCounter.builder("reference.cache.requests", referenceDataCache, ReferenceDataCache::getMissCount)
+                .description("Lookups of the reference data cache").tag("result", "miss").register(registry);
+        Gauge.builder("rsvp.pending", rsvpQueue, RsvpQueue::getPendingCount)
+                .description("Answers waiting for the next flush").register(registry);
+        Gauge.builder("team.events.subscribers", teamEventBroadcaster, TeamEventBroadcaster::getSubscriberCount)
+                .description("Open event streams of all teams").register(registry);
+        bindPoolSaturation(registry);
+    }
+
+    //share of the pool in use, at 1 requests wait for hikaricp.connections.acquire
+    private void bindPoolSaturation(MeterRegistry registry) {
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return;
+        }
+        Gauge.builder("hikaricp.connections.saturation", hikari, SportMetrics::saturation)
+                .description("Active connections divided by the maximum pool size").tag("pool", hikari.getPoolName()).register(registry);
+    }
+
+    private static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+}
@@ -16,10 +16,14 @@ public class SportService {
     @Autowired
     SportRepository sportRepository;
 
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
     public ResponseEntity<Sport> createSport (Sport sport) {
-        Optional<Sport> _sport = sportRepository.findBySportName(sport.getSportName());
+        Optional<Sport> _sport = referenceDataCache.findSportByName(sport.getSportName());
         if(_sport.isPresent()) {
             Sport newSportEntry = sportRepository.save(sport); //newSportEntry has the new id which was not existing when passing sport
+            referenceDataCache.refreshSports();
             return new ResponseEntity<>(newSportEntry, HttpStatus.CREATED);
         }else{
             return new ResponseEntity<>(_sport.get(), HttpStatus.IM_USED);
@@ -32,8 +36,14 @@ public class SportService {
                 orElseThrow(() -> new ResourceNotFoundException("Not found with id = " + sportId));
         updatedSportEntry.setSportName(sport.getSportName());
 
-        return new ResponseEntity<>(sportRepository.save(updatedSportEntry), HttpStatus.OK) ;
+        updatedSportEntry = sportRepository.save(updatedSportEntry);
+        referenceDataCache.refreshSports();
+        return new ResponseEntity<>(updatedSportEntry, HttpStatus.OK) ;
     }
+    public String getSportsTag() {
+        return VersionTags.of("sports", sportRepository.summarizeVersions());
+    }
+
     public ResponseEntity<List<Sport>> getAllSports(){
 
         List<Sport> sportList = sportRepository.findAll();
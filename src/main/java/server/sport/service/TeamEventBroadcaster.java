@@ -0,0 +1,203 @@
+package server.sport.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import server.sport.model.TeamEvent;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Pushes the TeamEvents published by the services to the members of the team as server-sent events.
+ * Events are published after the commit and only copied into the buffer of each subscriber, a small pool
+ * writes the buffers to the connections, so a slow client never holds up a request thread.
+ * An SseEventBuilder changes when it is built, so every subscriber builds its own.
+ * A subscriber whose buffer is full is disconnected, the client reconnects and reloads the activities.
+ * A write to a client which stopped reading blocks until the servlet write times out, so the pool hands each
+ * write to a writer thread and waits writeTimeoutMs for it. A subscriber whose write takes longer is disconnected
+ * and the dispatcher moves on, only the writer thread stays stuck on that connection.
+ */
+@Component
+public class TeamEventBroadcaster {
+    static final int BUFFER_SIZE = 64;
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int DISPATCH_THREADS = 2;
+    private static final long WRITE_TIMEOUT_MS = 5000;
+
+    long writeTimeoutMs = WRITE_TIMEOUT_MS;
+
+    private final Map<Integer, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService dispatcher = Executors.newFixedThreadPool(DISPATCH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "team-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //at most one busy thread per dispatcher thread, plus one per disconnected subscriber until its write fails
+    private final ExecutorService writer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "team-events-write");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SseEmitter subscribe(int teamId) {
+        return subscribe(teamId, new SseEmitter(TIMEOUT_MS));
+    }
+
+    public SseEmitter subscribe(int teamId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(teamId, emitter);
+        subscribers.computeIfAbsent(teamId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(failure -> remove(subscriber));
+        return emitter;
+    }
+
+    public boolean hasSubscribers() {
+        for (List<Subscriber> team : subscribers.values()) {
+            if (!team.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getSubscriberCount() {
+        int count = 0;
+        for (List<Subscriber> team : subscribers.values()) {
+            count += team.size();
+        }
+        return count;
+    }
+
+    public int getSubscriberCount(int teamId) {
+        List<Subscriber> team = subscribers.get(teamId);
+        return team == null ? 0 : team.size();
+    }
+
+    //events of a rolled back transaction are never sent
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(TeamEvent event) {
+        List<Subscriber> team = subscribers.get(event.getTeamId());
+        if (team == null || team.isEmpty()) {
+            return;
+        }
+        String id = String.valueOf(eventIds.incrementAndGet());
+        Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event().id(id).name(event.getType().toString()).data(event);
+        for (Subscriber subscriber : team) {
+            subscriber.offer(message);
+        }
+    }
+
+    //proxies drop connections without traffic, a comment also finds the clients that are gone
+    @Scheduled(fixedRate = 30000)
+    public void heartbeat() {
+        for (List<Subscriber> team : subscribers.values()) {
+            for (Subscriber subscriber : team) {
+                subscriber.offer(() -> SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writer.shutdownNow();
+        for (List<Subscriber> team : subscribers.values()) {
+            for (Subscriber subscriber : team) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        List<Subscriber> team = subscribers.get(subscriber.teamId);
+        if (team != null) {
+            team.remove(subscriber);
+        }
+    }
+
+    private final class Subscriber {
+        private final int teamId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(int teamId, SseEmitter emitter) {
+            this.teamId = teamId;
+            this.emitter = emitter;
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> message) {
+            if (!buffer.offer(message)) {
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        //one drain per subscriber at a time keeps the events in order
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> message;
+                while ((message = buffer.poll()) != null) {
+                    send(message.get());
+                }
+            } catch (IOException | RuntimeException e) {
+                //the client is gone, the emitter completed or the event can't be written, the client reconnects
+                remove(this);
+                buffer.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            Future<?> write = writer.submit(() -> {
+                emitter.send(event);
+                return null;
+            });
+            try {
+                write.get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                write.cancel(true);
+                throw new IOException("No event written to the subscriber of team " + teamId + " within " + writeTimeoutMs + " ms", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write.cancel(true);
+                throw new IOException(e);
+            }
+        }
+    }
+}
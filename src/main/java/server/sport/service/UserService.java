@@ -17,6 +17,10 @@ import server.sport.model.*;
 import server.sport.repository.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class UserService {
@@ -45,6 +49,16 @@ public class UserService {
     @Autowired
     ActivityStatusRepository activityStatusRepository;
 
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    RsvpQueue rsvpQueue;
+
+    public static final String ACK_ACCEPTED = "accepted";
+    public static final String ACK_FLUSHED = "flushed";
+    private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
     private Sort.Direction getSortDirection(String direction){
         if(direction.equals("asc")){
             return Sort.Direction.ASC;
@@ -53,7 +67,7 @@ public class UserService {
     }
 
     public ResponseEntity<User> addUser(User user) {
-        userTypeRepository.findById(user.getUserType().getUserTypeId())
+        referenceDataCache.findUserTypeById(user.getUserType().getUserTypeId())
                 .orElseThrow(() -> new ResourceNotFoundException("User type with id " + user.getUserType().getUserTypeId() + " not found."));
         teamRepository.findById(user.getTeam().getTeamId())
                 .orElseThrow(() -> new ResourceNotFoundException("Team with id " + user.getTeam().getTeamId() + " not found."));
@@ -79,19 +93,16 @@ public class UserService {
         }
 
         Pageable pagingSort = PageRequest.of(page, size,Sort.by(orders));
-        Page<User> pageUsers = userRepository.findAllByTeamTeamId(teamId, pagingSort);
+        Page<BasicUser> pageUsers = userRepository.findTeamRoster(teamId, pagingSort);
         if (pageUsers.getContent().isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
 
-        List<BasicUser> basicUsers = new ArrayList<>();
-        for (User user: pageUsers.getContent()) {
-            Team tempTeam = user.getTeam();
-            Sport tempSport = tempTeam.getSport();
-            basicUsers.add(new BasicUser(user.getUserId(),user.getFirstName(),user.getLastName(),user.getEmail(),
-                    new Team(tempTeam.getTeamId(),tempTeam.getTeamName(),
-                            new Sport(tempSport.getSportId(),tempSport.getSportName(), tempSport.getResponsibilities())))
-            );
+        //every member shares one team and sport, the responsibilities of the sport are never serialized
+        Map<Integer, Team> teams = new HashMap<>();
+        List<BasicUser> basicUsers = pageUsers.getContent();
+        for (BasicUser basicUser : basicUsers) {
+            basicUser.setTeam(teams.computeIfAbsent(basicUser.getTeam().getTeamId(), id -> basicUser.getTeam()));
         }
 
         Map<String,Object> response = new HashMap<>();
@@ -102,36 +113,38 @@ public class UserService {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    public ResponseEntity<Integer> updateStatusInActivity (int userId, int activityId, String status){
-        Activity activity = activityRepository.findById(activityId).orElseThrow(
-                () -> new org.springframework.data.rest.webmvc.ResourceNotFoundException("Not found activity with activity id = " + activityId));
-
-        UserStatus userStatus = userStatusRepository.findByStatusName(status);
-        if (userStatus.equals(null))
-            new org.springframework.data.rest.webmvc.ResourceNotFoundException("Not found status with user status name = " + status);
-
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new org.springframework.data.rest.webmvc.ResourceNotFoundException("Not found user with user id = " + userId));
-
-        /*List <ActivityStatus> activityStatuses1 = activity.getActivityStatuses().stream().filter
-                (activityStatus1 -> activityStatus1.getUserId()==userId).collect(Collectors.toList());
-
-
-
-        ActivityStatus activityStatus = null;
-
-        if (activityStatuses1.size() == 1){
-            activityStatus = new ActivityStatus(userId, activityId, userStatus, user, activity);
-        }else if (activityStatuses1.size() > 1 ){
-            new ErrorMessage(403, new Date(), "Too many activityStauses for one users", "Found more than one record of activity status for one user");
-        }else {
-            activityStatus = activityStatuses1.get(0);
-            activityStatus.setUserStatus(userStatus);
+    /*
+     * Only the status is looked up, in the cache. The answer is queued and written with the other answers of the next flush.
+     * With ack=accepted it returns 202 once queued, a user or activity without a status row is then dropped on the flush.
+     * With ack=flushed it waits for the write and returns the updated rows like before, a failed write is not retried.
+     */
+    public ResponseEntity<Integer> updateStatusInActivity (int userId, int activityId, String status, String ack){
+        if (!ACK_ACCEPTED.equals(ack) && !ACK_FLUSHED.equals(ack)) {
+            throw new EntityCannotBeProcessedExecption("ack must be " + ACK_ACCEPTED + " or " + ACK_FLUSHED);
         }
+        UserStatus userStatus = referenceDataCache.findUserStatusByName(status).orElseThrow(
+                () -> new org.springframework.data.rest.webmvc.ResourceNotFoundException("Not found status with user status name = " + status));
 
-         */
-
-        return new ResponseEntity<>(activityStatusRepository.saveNewActivityStatus(userStatus.getStatusId(),activityId, userId), HttpStatus.OK);
+        CompletableFuture<Integer> flushed = rsvpQueue.enqueue(userId, activityId, userStatus.getStatusId(), userStatus.getStatusName(), ACK_FLUSHED.equals(ack));
+        if (ACK_ACCEPTED.equals(ack)) {
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        }
+        int updated;
+        try {
+            updated = flushed.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            //still queued, it is written with a later flush
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Not found status of user with id = " + userId + " in activity with id = " + activityId);
+        }
+        return new ResponseEntity<>(updated, HttpStatus.OK);
     }
 
     public ResponseEntity<Activity> getActivity(int userId,int activityId) {
@@ -187,7 +200,7 @@ public class UserService {
         _user.setPhone(user.getPhone());
         _user.setEmail(user.getEmail());
 
-        UserType userType= userTypeRepository.findById(user.getUserType().getUserTypeId())
+        UserType userType= referenceDataCache.findUserTypeById(user.getUserType().getUserTypeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Did not find user type with id = " + user.getUserType().getUserTypeId()));
         _user.setUserType(userType);
 
@@ -0,0 +1,22 @@
+package server.sport.service;
+
+import org.springframework.util.DigestUtils;
+import server.sport.model.VersionSummary;
+
+import java.nio.charset.StandardCharsets;
+
+//ETag values computed from the version summaries of the tables a response is built from
+final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    //any added, removed or updated row gives a different tag
+    static String of(String name, VersionSummary... tables) {
+        StringBuilder versions = new StringBuilder();
+        for (VersionSummary table : tables) {
+            versions.append(table.getRows()).append(':').append(table.getMaxId()).append(':').append(table.getVersions()).append(';');
+        }
+        return "\"" + name + "-" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
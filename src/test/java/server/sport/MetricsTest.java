@@ -0,0 +1,72 @@
+package server.sport;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import server.sport.repository.ActivityBatchRepository;
+import server.sport.repository.ActivityRepository;
+import server.sport.service.ReferenceDataCache;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MetricsTest {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    ActivityBatchRepository activityBatchRepository;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    public void repositoryCallsTestTimedPerMethod() {
+        long before = count("activityRepository", "existsById", "success");
+        activityRepository.existsById(-1);
+        activityRepository.existsById(-2);
+        assertEquals(before + 2, count("activityRepository", "existsById", "success"));
+
+        //repositories written with JdbcTemplate are timed as well
+        long inserted = count("activityBatchRepository", "insertStatusForTeamMembers", "success");
+        activityBatchRepository.insertStatusForTeamMembers(0, Collections.singletonList(-1));
+        assertEquals(inserted + 1, count("activityBatchRepository", "insertStatusForTeamMembers", "success"));
+    }
+
+    @Test
+    public void referenceCacheTestCounted() {
+        double misses = meterRegistry.get("reference.cache.requests").tag("result", "miss").functionCounter().count();
+        referenceDataCache.findSportByName("Curling");
+        assertEquals(misses + 1, meterRegistry.get("reference.cache.requests").tag("result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.get("rsvp.pending").gauge());
+    }
+
+    @Test
+    public void dataSourceTestProxiedAndPoolTimed() throws Exception {
+        //the slow query log wraps the pool, the pool metrics still find it
+        assertTrue(dataSource instanceof ProxyDataSource);
+        assertTrue(dataSource.isWrapperFor(HikariDataSource.class));
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+        double saturation = meterRegistry.get("hikaricp.connections.saturation").gauge().value();
+        assertTrue(saturation >= 0 && saturation <= 1);
+    }
+
+    private long count(String repository, String method, String outcome) {
+        Timer timer = meterRegistry.find("repository.invocations").tag("repository", repository).tag("method", method).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
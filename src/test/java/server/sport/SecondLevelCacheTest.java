@@ -0,0 +1,110 @@
+package server.sport;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import server.sport.model.Location;
+import server.sport.model.Responsibility;
+import server.sport.model.Sport;
+import server.sport.repository.LocationRepository;
+import server.sport.repository.ResponsibilityRepository;
+import server.sport.repository.SportRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Counts the SQL statements of repeated reads with the second-level and query cache
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    ResponsibilityRepository responsibilityRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    Statistics statistics;
+    Sport sport;
+    Responsibility responsibility;
+    Location location;
+
+    @BeforeEach
+    public void init() {
+        sport = sportRepository.save(new Sport("Badminton"));
+        responsibility = responsibilityRepository.save(new Responsibility("Bring shuttlecocks", sport));
+        location = locationRepository.save(new Location("Badminton Court"));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        //start every test with a cold cache
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void reset() {
+        statistics.setStatisticsEnabled(false);
+        responsibilityRepository.deleteAll(responsibilityRepository.findAllBySport(sport));
+        sportRepository.delete(sport);
+        locationRepository.delete(location);
+    }
+
+    @Test
+    public void findByIdTestSecondReadWithoutSql() {
+        long firstRead = statementsOf(() -> sportRepository.findById(sport.getSportId()));
+        long secondRead = statementsOf(() -> sportRepository.findById(sport.getSportId()));
+        System.out.println("Sport findById, SQL statements: cold cache " + firstRead + ", warm cache " + secondRead);
+
+        assertEquals(1, firstRead);
+        assertEquals(0, secondRead);
+    }
+
+    @Test
+    public void findByIdTestUpdateIsVisible() {
+        sportRepository.findById(sport.getSportId());
+        sport.setSportName("Badminton doubles");
+        sport = sportRepository.save(sport);
+
+        long statements = statementsOf(() -> assertEquals("Badminton doubles", sportRepository.findById(sport.getSportId()).get().getSportName()));
+        assertEquals(0, statements);
+    }
+
+    @Test
+    public void findAllBySportTestQueryCacheInvalidatedOnWrite() {
+        long firstQuery = statementsOf(() -> responsibilityRepository.findAllBySport(sport));
+        long secondQuery = statementsOf(() -> assertEquals(1, responsibilityRepository.findAllBySport(sport).size()));
+        System.out.println("Responsibility findAllBySport, SQL statements: cold cache " + firstQuery + ", warm cache " + secondQuery);
+        assertTrue(firstQuery > 0);
+        assertEquals(0, secondQuery);
+
+        responsibilityRepository.save(new Responsibility("Book the court", sport));
+        long afterWrite = statementsOf(() -> assertEquals(2, responsibilityRepository.findAllBySport(sport).size()));
+        assertTrue(afterWrite > 0);
+    }
+
+    @Test
+    public void findByCourtNameTestQueryCache() {
+        long firstQuery = statementsOf(() -> locationRepository.findByCourtName("Badminton Court"));
+        long secondQuery = statementsOf(() -> assertEquals(1, locationRepository.findByCourtName("Badminton Court").size()));
+        System.out.println("Location findByCourtName, SQL statements: cold cache " + firstQuery + ", warm cache " + secondQuery);
+        assertTrue(firstQuery > 0);
+        assertEquals(0, secondQuery);
+    }
+
+    private long statementsOf(Runnable request) {
+        long before = statistics.getPrepareStatementCount();
+        request.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -1,20 +1,34 @@
 package server.sport.controller;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.RequestParam;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ReservationConflictException;
+import server.sport.exception.ResourceNotFoundException;
 import server.sport.model.*;
-import server.sport.repository.ActivityRepository;
+import server.sport.repository.*;
+import server.sport.service.LocationAvailabilityIndex;
+import server.sport.service.ReferenceDataCache;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
+@ExtendWith(SqlStatementLimit.class)
 public class ActivityControllerTest {
 
     @Autowired
@@ -22,6 +36,271 @@ public class ActivityControllerTest {
 
     @Autowired
     ActivityController activityController;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ActivityTypeRepository activityTypeRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivityStatusRepository activityStatusRepository;
+
+    @Autowired
+    UserStatusRepository userStatusRepository;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    LocationAvailabilityIndex locationAvailabilityIndex;
+
+    Team team;
+    User coach;
+    ActivityType training;
+    Location location;
+    Location otherLocation;
+
+    @BeforeEach
+    public void init() {
+        Sport sport = sportRepository.save(new Sport("Handball"));
+        team = teamRepository.save(new Team("Handball Team", sport, null));
+        UserType userType = userTypeRepository.save(new UserType("COACH", null));
+        coach = userRepository.save(new User("Lone", "Hansen", "lone@hansen.com", 40, "female", "+4512345678", null, null, null, null, userType, team));
+        training = activityTypeRepository.save(new ActivityType("TRAINING", null));
+        location = locationRepository.save(new Location("Handball Hall"));
+    }
+
+    @AfterEach
+    public void reset() {
+        activityStatusRepository.deleteAll();
+        activityRepository.deleteAll();
+        reservationRepository.deleteAll();
+        locationRepository.delete(location);
+        if (otherLocation != null) {
+            locationRepository.delete(otherLocation);
+        }
+        activityTypeRepository.delete(training);
+        userRepository.delete(coach);
+        userTypeRepository.delete(coach.getUserType());
+        teamRepository.delete(team);
+        sportRepository.delete(team.getSport());
+    }
+
+    private Activity newTraining(String startAt, String endAt) {
+        Activity activity = new Activity();
+        activity.setActivityName("Handball training");
+        activity.setCreator(new User(coach.getUserId()));
+        activity.setActivityType(training);
+        activity.setTeam(new Team(team.getTeamId(), team.getTeamName(), team.getSport()));
+        activity.setReservation(new Reservation(0, Timestamp.valueOf(startAt), Timestamp.valueOf(endAt), null, new Location(location.getLocationId())));
+        return activity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Activity> activities(Map<String, Object> page) {
+        return (List<Activity>) page.get("activities");
+    }
+
+    @Test
+    public void createActivityTestOverlappingReservationConflict() {
+        Activity first = activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 19:00:00")).getBody();
+
+        ReservationConflictException exception = assertThrows(ReservationConflictException.class,
+                () -> activityController.createActivity(newTraining("2021-03-01 18:00:00", "2021-03-01 20:00:00")));
+        assertEquals(Collections.singletonList(first.getReservation().getReservationId()), exception.getConflictingReservationIds());
+    }
+
+    @Test
+    public void createActivityTestAdjacentReservationSuccessful() {
+        activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 19:00:00"));
+        assertEquals(HttpStatus.CREATED,
+                activityController.createActivity(newTraining("2021-03-01 19:00:00", "2021-03-01 20:00:00")).getStatusCode());
+    }
+
+    @Test
+    public void getPageOfActivitiesTestCursorContinuesAfterLastActivity() {
+        activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00"));
+        activityController.createActivity(newTraining("2021-03-02 17:00:00", "2021-03-02 18:00:00"));
+        activityController.createActivity(newTraining("2021-03-03 17:00:00", "2021-03-03 18:00:00"));
+        //all activities have the same name, the activity id decides the order of the ties
+        String[] sort = {"activityName,asc"};
+
+        Map<String, Object> firstPage = activityController.getPageOfActivities(0, 2, sort, "").getBody();
+        List<Activity> firstActivities = activities(firstPage);
+        assertEquals(2, firstActivities.size());
+        assertNotNull(firstPage.get("nextCursor"));
+
+        Map<String, Object> secondPage = activityController.getPageOfActivities(0, 2, sort, (String) firstPage.get("nextCursor")).getBody();
+        List<Activity> secondActivities = activities(secondPage);
+        assertEquals(1, secondActivities.size());
+        assertNull(secondPage.get("nextCursor"));
+        assertTrue(firstActivities.get(1).getActivityId() < secondActivities.get(0).getActivityId());
+    }
+
+    @Test
+    public void getPageOfActivitiesTestInvalidCursor() {
+        assertThrows(EntityCannotBeProcessedExecption.class,
+                () -> activityController.getPageOfActivities(0, 2, new String[]{"activityId,desc"}, "not a cursor"));
+    }
+
+    @Test
+    public void getActivityByIdTestDetailSuccessful() {
+        Activity activity = activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00")).getBody();
+
+        ActivityDetail detail = activityController.getActivityById(activity.getActivityId()).getBody();
+        assertEquals("Handball training", detail.getActivityName());
+        assertEquals("TRAINING", detail.getActivityTypeName());
+        assertEquals(location.getCourtName(), detail.getCourtName());
+        assertEquals(coach.getFirstName(), detail.getCreatorFirstName());
+        assertEquals(team.getTeamId(), detail.getTeamId());
+        assertTrue(detail.getParticipants().isEmpty());
+    }
+
+    @Test
+    public void getActivityByIdTestStatementsIndependentOfParticipants() {
+        UserStatus notAnswered = userStatusRepository.save(new UserStatus("HAS NOT ANSWERED", null));
+        List<User> players = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                players.add(userRepository.save(new User("Player", "No " + i, "player" + i + "@hansen.com", 20, "female", "+451234567" + i,
+                        null, null, null, null, coach.getUserType(), team)));
+            }
+            Activity activity = activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00")).getBody();
+
+            //detail, participants and responsibilities
+            ActivityDetail detail = SqlStatementLimit.atMost(3, () -> activityController.getActivityById(activity.getActivityId()).getBody());
+            assertEquals(5, detail.getParticipants().size());
+        } finally {
+            activityStatusRepository.deleteAll();
+            userRepository.deleteAll(players);
+            userStatusRepository.delete(notAnswered);
+            referenceDataCache.refreshUserStatuses();
+        }
+    }
+
+    @Test
+    public void getActivitiesForTeamTestSummariesSuccessful() {
+        activityController.createActivity(newTraining("2021-03-02 17:00:00", "2021-03-02 18:00:00"));
+        activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00"));
+
+        //the team check and the summaries
+        List<ActivitySummary> activities = new ArrayList<>(SqlStatementLimit.atMost(2, () -> activityController.getActivitiesForTeam(team.getTeamId()).getBody()));
+        assertEquals(2, activities.size());
+        assertEquals(Timestamp.valueOf("2021-03-01 17:00:00"), activities.get(0).getStartAt());
+        assertEquals(team.getTeamName(), activities.get(0).getTeamName());
+    }
+
+    @Test
+    public void getActivitiesForTeamTestNoTeamException() {
+        assertThrows(ResourceNotFoundException.class, () -> activityController.getActivitiesForTeam(-1));
+    }
+
+    @Test
+    public void getCalendarTestWindowAndFilters() {
+        otherLocation = locationRepository.save(new Location("Handball Hall 2"));
+        activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00"));
+        Activity inWindow = activityController.createActivity(newTraining("2021-03-02 17:00:00", "2021-03-02 18:00:00")).getBody();
+        activityController.createActivity(newTraining("2021-03-04 17:00:00", "2021-03-04 18:00:00"));
+        Activity elsewhere = newTraining("2021-03-02 17:00:00", "2021-03-02 18:00:00");
+        elsewhere.getReservation().setLocation(new Location(otherLocation.getLocationId()));
+        elsewhere = activityController.createActivity(elsewhere).getBody();
+
+        Timestamp from = Timestamp.valueOf("2021-03-02 00:00:00");
+        Timestamp to = Timestamp.valueOf("2021-03-04 00:00:00");
+        List<ActivitySummary> all = activityController.getCalendar(from, to, null, null).getBody();
+        assertEquals(2, all.size());
+        List<ActivitySummary> atLocation = activityController.getCalendar(from, to, team.getTeamId(), location.getLocationId()).getBody();
+        assertEquals(1, atLocation.size());
+        assertEquals(inWindow.getActivityId(), atLocation.get(0).getActivityId());
+        assertEquals(elsewhere.getActivityId(), activityController.getCalendar(from, to, null, otherLocation.getLocationId()).getBody().get(0).getActivityId());
+        assertEquals(HttpStatus.NO_CONTENT, activityController.getCalendar(from, to, -1, null).getStatusCode());
+    }
+
+    @Test
+    public void getCalendarTestInvalidWindow() {
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityController.getCalendar(
+                Timestamp.valueOf("2021-03-04 00:00:00"), Timestamp.valueOf("2021-03-02 00:00:00"), null, null));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityController.getCalendar(
+                Timestamp.valueOf("2021-01-01 00:00:00"), Timestamp.valueOf("2023-01-01 00:00:00"), null, null));
+    }
+
+    @Test
+    public void createActivityTestPlayersStartAsNotAnswered() {
+        UserStatus notAnswered = userStatusRepository.save(new UserStatus("HAS NOT ANSWERED", null));
+        try {
+            Activity activity = activityController.createActivity(newTraining("2021-03-01 17:00:00", "2021-03-01 18:00:00")).getBody();
+
+            List<ActivityParticipant> participants = new ArrayList<>(activityController.getActivityById(activity.getActivityId()).getBody().getParticipants());
+            assertEquals(1, participants.size());
+            assertEquals(coach.getUserId(), participants.get(0).getUserId());
+            assertEquals("HAS NOT ANSWERED", participants.get(0).getStatusName());
+        } finally {
+            activityStatusRepository.deleteAll();
+            userStatusRepository.delete(notAnswered);
+            referenceDataCache.refreshUserStatuses();
+        }
+    }
+
+    @Test
+    public void createActivitiesTestRepeatedSchedule() {
+        ActivitySchedule schedule = new ActivitySchedule(newTraining("2021-08-02 17:00:00", "2021-08-02 18:30:00"), null, 7, 30);
+        List<ActivitySummary> created = activityController.createActivities(schedule).getBody();
+
+        assertEquals(30, created.size());
+        assertEquals(Timestamp.valueOf("2021-08-09 17:00:00"), created.get(1).getStartAt());
+        assertEquals(Timestamp.valueOf("2022-02-21 18:30:00"), created.get(29).getEndAt());
+        assertEquals(30, activityRepository.findSummariesByTeamId(team.getTeamId()).size());
+        ActivityDetail detail = activityController.getActivityById(created.get(10).getActivityId()).getBody();
+        assertEquals(created.get(10).getReservationId(), detail.getReservationId());
+        assertEquals(location.getCourtName(), detail.getCourtName());
+        //the index learnt about the batch inserted reservations
+        assertEquals(Collections.singletonList(created.get(3).getReservationId()), locationAvailabilityIndex.findOverlappingReservationIds(
+                location.getLocationId(), Timestamp.valueOf("2021-08-23 18:00:00"), Timestamp.valueOf("2021-08-23 19:00:00")));
+    }
+
+    @Test
+    public void createActivitiesTestConflictCreatesNothing() {
+        Activity existing = activityController.createActivity(newTraining("2021-08-16 18:00:00", "2021-08-16 20:00:00")).getBody();
+        List<Reservation> timeFrames = new ArrayList<>();
+        for (String day : new String[]{"2021-08-02", "2021-08-09", "2021-08-16", "2021-08-23"}) {
+            timeFrames.add(new Reservation(0, Timestamp.valueOf(day + " 17:00:00"), Timestamp.valueOf(day + " 18:30:00"), null, null));
+        }
+        long reservations = reservationRepository.count();
+
+        ReservationConflictException exception = assertThrows(ReservationConflictException.class, () -> activityController.createActivities(
+                new ActivitySchedule(newTraining("2021-08-02 17:00:00", "2021-08-02 18:30:00"), timeFrames, null, null)));
+        assertEquals(Collections.singletonList(existing.getReservation().getReservationId()), exception.getConflictingReservationIds());
+        assertEquals(reservations, reservationRepository.count());
+    }
+
+    @Test
+    public void createActivitiesTestInvalidSchedule() {
+        List<Reservation> overlapping = new ArrayList<>();
+        overlapping.add(new Reservation(0, Timestamp.valueOf("2021-08-02 17:00:00"), Timestamp.valueOf("2021-08-02 18:30:00"), null, null));
+        overlapping.add(new Reservation(0, Timestamp.valueOf("2021-08-02 18:00:00"), Timestamp.valueOf("2021-08-02 19:00:00"), null, null));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityController.createActivities(
+                new ActivitySchedule(newTraining("2021-08-02 17:00:00", "2021-08-02 18:30:00"), overlapping, null, null)));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityController.createActivities(
+                new ActivitySchedule(newTraining("2021-08-02 17:00:00", "2021-08-02 18:30:00"), null, 7, 1000)));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityController.createActivities(
+                new ActivitySchedule(newTraining("2021-08-02 17:00:00", "2021-08-02 18:30:00"), null, null, null)));
+    }
 /*
     @Test
     public void testAddingActivity(){
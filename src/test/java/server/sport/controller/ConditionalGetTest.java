@@ -0,0 +1,174 @@
+package server.sport.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import server.sport.model.Location;
+import server.sport.model.Sport;
+import server.sport.model.Team;
+import server.sport.repository.LocationRepository;
+import server.sport.repository.SportRepository;
+import server.sport.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.text.ParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//If-None-Match on the team, location and sport reads
+@SpringBootTest
+public class ConditionalGetTest {
+
+    @Autowired
+    TeamController teamController;
+
+    @Autowired
+    LocationController locationController;
+
+    @Autowired
+    SportController sportController;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Sport sport;
+    Team team;
+    Location location;
+
+    @BeforeEach
+    public void init() {
+        sport = sportRepository.save(new Sport("Squash"));
+        team = teamRepository.save(new Team("Squashers", sport, null));
+        location = locationRepository.save(new Location("Squash Court"));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void reset() {
+        statistics.setStatisticsEnabled(false);
+        teamRepository.deleteById(team.getTeamId());
+        sportRepository.deleteById(sport.getSportId());
+        locationRepository.deleteById(location.getLocationId());
+    }
+
+    @Test
+    public void getAllTeamsTestNotModified() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertNotNull(teamController.getAllTeams(request(null, first)));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        long before = statistics.getPrepareStatementCount();
+        assertNull(teamController.getAllTeams(request(eTag, second)));
+        //only the aggregate over the teams and their sports, the teams are not read
+        assertEquals(1, statistics.getPrepareStatementCount() - before);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), second.getStatus());
+    }
+
+    @Test
+    public void getAllTeamsTestSportRenameChangesTag() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        teamController.getAllTeams(request(null, first));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+
+        Sport _sport = sportRepository.findById(sport.getSportId()).get();
+        _sport.setSportName("Squash doubles");
+        sportRepository.save(_sport);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertNotNull(teamController.getAllTeams(request(eTag, second)));
+        assertNotEquals(eTag, second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getTeamTestTagFollowsUpdates() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertEquals("Squashers", teamController.getTeam(team.getTeamId(), request(null, first)).getBody().getTeamName());
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse unchanged = new MockHttpServletResponse();
+        assertNull(teamController.getTeam(team.getTeamId(), request(eTag, unchanged)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), unchanged.getStatus());
+
+        Team _team = teamRepository.findById(team.getTeamId()).get();
+        _team.setTeamName("Squash Masters");
+        teamRepository.save(_team);
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        assertEquals("Squash Masters", teamController.getTeam(team.getTeamId(), request(eTag, changed)).getBody().getTeamName());
+        assertNotEquals(eTag, changed.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getAllLocationsTestNewLocationChangesTag() throws ParseException {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        locationController.getAllLocations(null, null, request(null, first));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse unchanged = new MockHttpServletResponse();
+        assertNull(locationController.getAllLocations(null, null, request(eTag, unchanged)));
+
+        Location added = locationRepository.save(new Location("Squash Court 2"));
+        try {
+            MockHttpServletResponse changed = new MockHttpServletResponse();
+            assertNotNull(locationController.getAllLocations(null, null, request(eTag, changed)));
+            assertNotEquals(eTag, changed.getHeader(HttpHeaders.ETAG));
+        } finally {
+            locationRepository.deleteById(added.getLocationId());
+        }
+    }
+
+    @Test
+    public void getAllLocationsTestWindowIsNotConditional() throws ParseException {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        locationController.getAllLocations(null, null, request(null, first));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse window = new MockHttpServletResponse();
+        assertNotNull(locationController.getAllLocations(Timestamp.valueOf("2030-01-01 10:00:00"),
+                Timestamp.valueOf("2030-01-01 11:00:00"), request(eTag, window)));
+        assertNull(window.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getAllSportsTestNotModified() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(sportController.getAllSports(request(null, first)).getBody().contains(sport));
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertNull(sportController.getAllSports(request(eTag, second)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), second.getStatus());
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,298 @@
+package server.sport.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import server.sport.enumerated.TeamEventType;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ReservationConflictException;
+import server.sport.model.*;
+import server.sport.repository.*;
+import server.sport.service.LocationService;
+import server.sport.service.TeamEventBroadcaster;
+
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ExtendWith(SqlStatementLimit.class)
+public class SeriesControllerTest {
+
+    @Autowired
+    SeriesController seriesController;
+
+    @Autowired
+    ActivityController activityController;
+
+    @Autowired
+    LocationService locationService;
+
+    @Autowired
+    ActivitySeriesRepository activitySeriesRepository;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ActivityTypeRepository activityTypeRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivityStatusRepository activityStatusRepository;
+
+    @Autowired
+    LocationController locationController;
+
+    @Autowired
+    TeamEventBroadcaster teamEventBroadcaster;
+
+    Team team;
+    User coach;
+    ActivityType training;
+    Location location;
+
+    @BeforeEach
+    public void init() {
+        Sport sport = sportRepository.save(new Sport("Volleyball"));
+        team = teamRepository.save(new Team("Volleyball Team", sport, null));
+        UserType userType = userTypeRepository.save(new UserType("COACH", null));
+        coach = userRepository.save(new User("Mads", "Holm", "mads@holm.com", 35, "male", "+4587654321", null, null, null, null, userType, team));
+        training = activityTypeRepository.save(new ActivityType("TRAINING", null));
+        location = locationRepository.save(new Location("Volleyball Hall"));
+    }
+
+    @AfterEach
+    public void reset() {
+        activityStatusRepository.deleteAll();
+        activityRepository.deleteAll();
+        activitySeriesRepository.deleteAll();
+        reservationRepository.deleteAll();
+        locationRepository.delete(location);
+        activityTypeRepository.delete(training);
+        userRepository.delete(coach);
+        userTypeRepository.delete(coach.getUserType());
+        teamRepository.delete(team);
+        sportRepository.delete(team.getSport());
+    }
+
+    //Mondays and Thursdays 17:00 - 18:30 from 2021-03-01, 2021-03-01 is a Monday
+    private ActivitySeries newSeries(String recurrenceRule) {
+        return new ActivitySeries("Volleyball training", 12, null, recurrenceRule, Timestamp.valueOf("2021-03-01 17:00:00"),
+                Timestamp.valueOf("2021-03-01 18:30:00"), new User(coach.getUserId()), training,
+                new Team(team.getTeamId(), team.getTeamName(), team.getSport()), new Location(location.getLocationId()));
+    }
+
+    private Activity newTraining(String startAt, String endAt) {
+        Activity activity = new Activity();
+        activity.setActivityName("Volleyball match");
+        activity.setCreator(new User(coach.getUserId()));
+        activity.setActivityType(training);
+        activity.setTeam(new Team(team.getTeamId(), team.getTeamName(), team.getSport()));
+        activity.setReservation(new Reservation(0, Timestamp.valueOf(startAt), Timestamp.valueOf(endAt), null, new Location(location.getLocationId())));
+        return activity;
+    }
+
+    @Test
+    public void createSeriesTestStoresOneRow() {
+        long reservations = reservationRepository.count();
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+
+        assertEquals(Timestamp.valueOf("2021-07-15 18:30:00"), series.getLastEndAt());
+        assertEquals(reservations, reservationRepository.count());
+        assertEquals(0, activityRepository.count());
+    }
+
+    @Test
+    public void getOccurrencesForTeamTestExpandsWindow() {
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+
+        List<ActivityOccurrence> occurrences = seriesController.getOccurrencesForTeam(team.getTeamId(),
+                Timestamp.valueOf("2021-03-08 00:00:00"), Timestamp.valueOf("2021-03-15 00:00:00")).getBody();
+        assertEquals(2, occurrences.size());
+        assertEquals(Timestamp.valueOf("2021-03-08 17:00:00"), occurrences.get(0).getStartAt());
+        assertEquals(Timestamp.valueOf("2021-03-11 18:30:00"), occurrences.get(1).getEndAt());
+        assertEquals(series.getSeriesId(), occurrences.get(0).getSeriesId());
+        assertFalse(occurrences.get(0).getMaterialized());
+        assertEquals(0, occurrences.get(0).getActivityId());
+
+        assertEquals(HttpStatus.NO_CONTENT, seriesController.getOccurrencesForTeam(team.getTeamId(),
+                Timestamp.valueOf("2022-01-01 00:00:00"), Timestamp.valueOf("2022-02-01 00:00:00")).getStatusCode());
+    }
+
+    @Test
+    public void materializeOccurrenceTestOnceAndMerged() {
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+        Timestamp startAt = Timestamp.valueOf("2021-03-11 17:00:00");
+
+        ResponseEntity<ActivityOccurrence> created = seriesController.materializeOccurrence(series.getSeriesId(), startAt);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        int activityId = created.getBody().getActivityId();
+        assertTrue(activityId > 0);
+        assertEquals(series.getSeriesId(), activityRepository.findById(activityId).get().getSeriesId());
+
+        //materializing it again and cancelling it change the same activity
+        assertEquals(activityId, seriesController.materializeOccurrence(series.getSeriesId(), startAt).getBody().getActivityId());
+        ResponseEntity<ActivityOccurrence> cancelled = seriesController.cancelOccurrence(series.getSeriesId(), startAt);
+        assertEquals(HttpStatus.OK, cancelled.getStatusCode());
+        assertEquals(activityId, cancelled.getBody().getActivityId());
+        assertEquals(1, activityRepository.count());
+
+        List<ActivityOccurrence> occurrences = seriesController.getOccurrencesForTeam(team.getTeamId(),
+                Timestamp.valueOf("2021-03-08 00:00:00"), Timestamp.valueOf("2021-03-15 00:00:00")).getBody();
+        assertEquals(2, occurrences.size());
+        assertFalse(occurrences.get(0).getMaterialized());
+        assertTrue(occurrences.get(1).getMaterialized());
+        assertTrue(occurrences.get(1).getIsCancelled());
+        assertEquals(activityId, occurrences.get(1).getActivityId());
+    }
+
+    @Test
+    public void materializeOccurrenceTestNotAnOccurrence() {
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> seriesController.materializeOccurrence(series.getSeriesId(),
+                Timestamp.valueOf("2021-03-10 17:00:00")));
+    }
+
+    @Test
+    public void createActivityTestConflictsWithSeriesOccurrence() throws ParseException {
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+
+        ReservationConflictException exception = assertThrows(ReservationConflictException.class,
+                () -> activityController.createActivity(newTraining("2021-03-18 18:00:00", "2021-03-18 20:00:00")));
+        assertTrue(exception.getConflictingReservationIds().isEmpty());
+        assertEquals(Collections.singletonList(series.getSeriesId()), exception.getConflictingSeriesIds());
+        //an evening without an occurrence is free
+        assertEquals(HttpStatus.CREATED, activityController.createActivity(newTraining("2021-03-17 18:00:00", "2021-03-17 20:00:00")).getStatusCode());
+
+        List<Location> free = locationService.getAllLocations(Timestamp.valueOf("2021-03-18 18:00:00"), Timestamp.valueOf("2021-03-18 19:00:00")).getBody();
+        assertTrue(free == null || !free.contains(location));
+    }
+
+    @Test
+    public void getCalendarTestMergesSeriesOccurrences() {
+        ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+        Activity oneOff = activityController.createActivity(newTraining("2021-03-09 17:00:00", "2021-03-09 19:00:00")).getBody();
+        seriesController.materializeOccurrence(series.getSeriesId(), Timestamp.valueOf("2021-03-11 17:00:00"));
+
+        List<ActivitySummary> calendar = activityController.getCalendar(Timestamp.valueOf("2021-03-08 00:00:00"),
+                Timestamp.valueOf("2021-03-15 00:00:00"), null, location.getLocationId()).getBody();
+        assertEquals(3, calendar.size());
+        assertEquals(0, calendar.get(0).getActivityId());
+        assertEquals(oneOff.getActivityId(), calendar.get(1).getActivityId());
+        //the materialized occurrence is listed once
+        assertTrue(((ActivityOccurrence) calendar.get(2)).getMaterialized());
+        assertEquals(Timestamp.valueOf("2021-03-11 17:00:00"), calendar.get(2).getStartAt());
+
+        //the filters select the series in the query
+        assertEquals(3, activityController.getCalendar(Timestamp.valueOf("2021-03-08 00:00:00"),
+                Timestamp.valueOf("2021-03-15 00:00:00"), team.getTeamId(), null).getBody().size());
+        assertEquals(3, activityController.getCalendar(Timestamp.valueOf("2021-03-08 00:00:00"),
+                Timestamp.valueOf("2021-03-15 00:00:00"), team.getTeamId(), location.getLocationId()).getBody().size());
+        assertEquals(HttpStatus.NO_CONTENT, activityController.getCalendar(Timestamp.valueOf("2021-03-08 00:00:00"),
+                Timestamp.valueOf("2021-03-15 00:00:00"), -1, location.getLocationId()).getStatusCode());
+    }
+
+    @Test
+    public void getAvailabilityTestReservationsAndOccurrences() {
+        seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40"));
+        activityController.createActivity(newTraining("2021-03-09 08:00:00", "2021-03-09 09:10:00"));
+
+        //Monday 2021-03-08 until Wednesday, 192 slots of 15 minutes
+        Map<String, Object> response = locationController.getAvailability(Timestamp.valueOf("2021-03-08 00:00:00"),
+                Timestamp.valueOf("2021-03-10 00:00:00")).getBody();
+        assertEquals(192L, response.get("slots"));
+        LocationAvailability availability = null;
+        for (Object _availability : (List<?>) response.get("locations")) {
+            if (((LocationAvailability) _availability).getLocationId() == location.getLocationId()) {
+                availability = (LocationAvailability) _availability;
+            }
+        }
+        byte[] bytes = Base64.getDecoder().decode(availability.getBusy());
+        assertEquals(24, bytes.length);
+        BitSet busy = BitSet.valueOf(bytes);
+        //the occurrence on Monday 17:00 - 18:30
+        assertEquals(68, busy.nextSetBit(0));
+        assertEquals(74, busy.nextClearBit(68));
+        //the reservation on Tuesday 08:00 - 09:10 takes five slots
+        assertEquals(96 + 32, busy.nextSetBit(74));
+        assertEquals(96 + 37, busy.nextClearBit(96 + 32));
+        assertEquals(11, busy.cardinality());
+    }
+
+    @Test
+    public void createSeriesTestInvalidSeries() {
+        seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40"));
+        //a second series on the same evenings
+        assertThrows(ReservationConflictException.class, () -> seriesController.createSeries(newSeries("FREQ=WEEKLY;COUNT=4")));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> seriesController.createSeries(newSeries("FREQ=YEARLY;COUNT=4")));
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> seriesController.createSeries(newSeries("FREQ=WEEKLY")));
+        assertEquals(1, activitySeriesRepository.count());
+    }
+
+    @Test
+    public void createSeriesTestPublishesToTheTeam() throws InterruptedException {
+        List<TeamEvent> events = new CopyOnWriteArrayList<>();
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                    if (data.getData() instanceof TeamEvent) {
+                        events.add((TeamEvent) data.getData());
+                    }
+                }
+            }
+        };
+        teamEventBroadcaster.subscribe(team.getTeamId(), emitter);
+        try {
+            ActivitySeries series = seriesController.createSeries(newSeries("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=40")).getBody();
+            //a season schedule sends one event per activity
+            List<ActivitySummary> created = activityController.createActivities(
+                    new ActivitySchedule(newTraining("2021-03-02 17:00:00", "2021-03-02 18:30:00"), null, 7, 3)).getBody();
+            for (int i = 0; i < 100 && events.size() < 4; i++) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(4, events.size());
+            assertEquals(TeamEventType.ACTIVITY_CREATED, events.get(0).getType());
+            assertEquals(series.getSeriesId(), events.get(0).getSeriesId());
+            for (int i = 0; i < created.size(); i++) {
+                assertEquals(TeamEventType.ACTIVITY_CREATED, events.get(i + 1).getType());
+                assertEquals(created.get(i).getActivityId(), events.get(i + 1).getActivityId());
+            }
+        } finally {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package server.sport.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import server.sport.repository.SportRepository;
+import server.sport.repository.TeamRepository;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SqlCountFilterTest {
+
+    @Autowired
+    SqlCountFilter sqlCountFilter;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Test
+    public void doFilterTestCountsStatementsOfTheRequest() throws Exception {
+        sportRepository.count();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sqlCountFilter.doFilter(new MockHttpServletRequest("GET", "/api/sports"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                sportRepository.count();
+                teamRepository.existsById(-1);
+                //written before the count is known
+                response.getWriter().write("[]");
+            }
+        }));
+        assertEquals("2", response.getHeader(SqlCountFilter.HEADER));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    public void doFilterTestStreamsAsyncResponses() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/teams/1/events");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sqlCountFilter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.startAsync();
+                response.getWriter().write("data:ping\n\n");
+                response.getWriter().flush();
+            }
+        }));
+        //the event reached the client without the filter copying it
+        assertEquals("data:ping\n\n", response.getContentAsString());
+        assertNull(response.getHeader(SqlCountFilter.HEADER));
+    }
+}
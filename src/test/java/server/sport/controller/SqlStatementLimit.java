@@ -0,0 +1,51 @@
+package server.sport.controller;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import server.sport.repository.SqlStatementCounter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/*
+ * Fails a test which runs more Hibernate statements than sql.statements.fail-threshold, @BeforeEach and
+ * @AfterEach are not counted. The controller tests use it so a collection loaded row by row - an N+1 -
+ * fails the build instead of only slowing down the endpoint.
+ * The threshold covers the setup of a test too, a read under test is limited on its own with atMost.
+ */
+public class SqlStatementLimit implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlStatementLimit.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatementCounter.current());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        long statements = SqlStatementCounter.current() - context.getStore(NAMESPACE).remove(context.getUniqueId(), Long.class);
+        int threshold = SpringExtension.getApplicationContext(context).getEnvironment()
+                .getProperty("sql.statements.fail-threshold", Integer.class, Integer.MAX_VALUE);
+        if (statements > threshold) {
+            fail(context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName() + " ran " + statements
+                    + " SQL statements, more than sql.statements.fail-threshold = " + threshold);
+        }
+    }
+
+    //runs the call and fails when it runs more than the given Hibernate statements - run it over more than one row
+    public static <T> T atMost(int statements, Supplier<T> call) {
+        long before = SqlStatementCounter.current();
+        T result = call.get();
+        long ran = SqlStatementCounter.current() - before;
+        if (ran > statements) {
+            fail("The call ran " + ran + " SQL statements, expected at most " + statements);
+        }
+        return result;
+    }
+}
@@ -4,11 +4,16 @@ import org.hibernate.procedure.NoSuchParameterException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import server.sport.exception.ResourceNotFoundException;
 import server.sport.model.Sport;
 import server.sport.model.Team;
@@ -28,6 +33,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @AutoConfigureTestDatabase(replace= AutoConfigureTestDatabase.Replace.NONE)
 @SpringBootTest
+@ExtendWith(SqlStatementLimit.class)
 public class TeamControllerTest {
 
     @Autowired
@@ -75,7 +81,7 @@ public class TeamControllerTest {
 
     @Test
     public void getAllTeamsTestSizeSuccessful(){
-        assertEquals(7, teamController.getAllTeams().getBody().size());
+        assertEquals(7, teamController.getAllTeams(request()).getBody().size());
     }
 
     @Test
@@ -83,7 +89,7 @@ public class TeamControllerTest {
         userRepository.deleteAll();
         userTypeRepository.deleteAll();
         teamRepository.deleteAll();
-        assertEquals(new ResponseEntity<>(HttpStatus.NO_CONTENT), teamController.getAllTeams());
+        assertEquals(new ResponseEntity<>(HttpStatus.NO_CONTENT), teamController.getAllTeams(request()));
     }
 
     //fails when run with other tests... Cannot find Sport with id 1
@@ -106,7 +112,7 @@ public class TeamControllerTest {
         System.out.println(sport1.toString());
         System.out.println(teams.toString());
         teamRepository.saveAll(teams);
-        assertThat(teamController.getAllTeams().getBody().equals(teams));
+        assertThat(teamController.getAllTeams(request()).getBody().equals(teams));
     }
 
     //fails when run with other tests... Cannot find Sport with id 1
@@ -115,13 +121,13 @@ public class TeamControllerTest {
     public void findByIdTestSuccessful(){
         Sport sport = new Sport(1, "Basketball", null);
         Team team = new Team(2, "Awesomers", sport,null, null);
-        assertThat(teamController.getTeam(team.getTeamId()).getBody().equals(team));
+        assertThat(teamController.getTeam(team.getTeamId(), request()).getBody().equals(team));
     }
 
     @Test
     public void findByIdTestException(){
         Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
-            teamController.getTeam(12);
+            teamController.getTeam(12, request());
         });
         assertEquals("Did not find team with id = 12", exception.getMessage());
     }
@@ -165,5 +171,7 @@ public class TeamControllerTest {
         assertEquals(team, teamController.updateTeam(team.getTeamId(),team).getBody());
     }
 
-
+    private static WebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/teams"), new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,125 @@
+package server.sport.load;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Throughput of GET /api/activities with pool sizes of 5, 10, 20 and 40 connections, CLIENTS clients calling it
+ * back to back. Runs with mvn -Pload-tests test, against its own in-memory database filled with synthetic data,
+ * which outlives its connections - they are closed whenever the pool is resized.
+ * Point spring.datasource.url at a copy of the RDS database to size the pool for production.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loaddb;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1",
+        "testdata.synthetic.reservations=20000"})
+public class ActivitiesLoadTest {
+    private static final int[] POOL_SIZES = {5, 10, 20, 40};
+    private static final int CLIENTS = 64;
+    private static final long WARM_UP_MS = 3000;
+    private static final long MEASURE_MS = 10000;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void getPageOfActivitiesTestThroughputPerPoolSize() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariConfigMXBean pool = hikari.getHikariConfigMXBean();
+        HikariPoolMXBean connections = hikari.getHikariPoolMXBean();
+        URL url = new URL("http://localhost:" + port + "/api/activities?size=20&sort=activityId,desc");
+
+        StringBuilder report = new StringBuilder("pool size | requests/s | mean connection wait ms\n");
+        for (int poolSize : POOL_SIZES) {
+            pool.setMaximumPoolSize(poolSize);
+            pool.setMinimumIdle(poolSize);
+            //a lower maximum does not close the open connections, they are closed now and reopened up to the new size
+            connections.softEvictConnections();
+            run(url, WARM_UP_MS);
+            assertTrue(connections.getTotalConnections() <= poolSize, connections.getTotalConnections() + " connections in a pool of " + poolSize);
+
+            Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+            long waits = acquire.count();
+            double waited = acquire.totalTime(TimeUnit.MILLISECONDS);
+            Result result = run(url, MEASURE_MS);
+            assertEquals(0, result.failures.sum(), "failed requests with a pool of " + poolSize);
+            assertTrue(connections.getTotalConnections() <= poolSize, connections.getTotalConnections() + " connections in a pool of " + poolSize);
+            assertTrue(result.requests.sum() > 0);
+
+            long acquired = acquire.count() - waits;
+            report.append(String.format("%9d | %10.0f | %.3f%n", poolSize, result.requests.sum() * 1000.0 / MEASURE_MS,
+                    acquired == 0 ? 0 : (acquire.totalTime(TimeUnit.MILLISECONDS) - waited) / acquired));
+        }
+        System.out.println(report);
+    }
+
+    private Result run(URL url, long durationMs) throws InterruptedException {
+        Result result = new Result();
+        long end = System.currentTimeMillis() + durationMs;
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Callable<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            calls.add(() -> {
+                while (System.currentTimeMillis() < end) {
+                    if (get(url)) {
+                        result.requests.increment();
+                    } else {
+                        result.failures.increment();
+                    }
+                }
+                return null;
+            });
+        }
+        clients.invokeAll(calls);
+        clients.shutdown();
+        return result;
+    }
+
+    private static boolean get(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) != -1) {
+                    //the whole response is read so the connection is reused
+                }
+            }
+            return connection.getResponseCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class Result {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+}
@@ -0,0 +1,56 @@
+package server.sport.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceRuleTest {
+
+    //2021-03-01 is a Monday
+    private static final LocalDateTime FIRST = LocalDateTime.of(2021, 3, 1, 17, 0);
+
+    @Test
+    public void occurrencesTestWeeklyByDay() {
+        List<LocalDateTime> occurrences = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TH,MO;COUNT=5").occurrences(FIRST);
+        assertEquals(5, occurrences.size());
+        assertEquals(FIRST, occurrences.get(0));
+        assertEquals(LocalDateTime.of(2021, 3, 4, 17, 0), occurrences.get(1));
+        assertEquals(LocalDateTime.of(2021, 3, 8, 17, 0), occurrences.get(2));
+        assertEquals(LocalDateTime.of(2021, 3, 15, 17, 0), occurrences.get(4));
+    }
+
+    @Test
+    public void occurrencesTestIntervalAndUntil() {
+        List<LocalDateTime> occurrences = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;UNTIL=20210329").occurrences(FIRST);
+        assertEquals(3, occurrences.size());
+        assertEquals(LocalDateTime.of(2021, 3, 29, 17, 0), occurrences.get(2));
+
+        List<LocalDateTime> daily = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3;UNTIL=20210307T170000").occurrences(FIRST);
+        assertEquals(3, daily.size());
+        assertEquals(LocalDateTime.of(2021, 3, 7, 17, 0), daily.get(2));
+    }
+
+    @Test
+    public void occurrencesTestFirstOccurrenceIsTheStart() {
+        //a Wednesday start of a Monday and Friday series starts on the Wednesday, like DTSTART
+        LocalDateTime wednesday = LocalDateTime.of(2021, 3, 3, 17, 0);
+        List<LocalDateTime> occurrences = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,FR;COUNT=2").occurrences(wednesday);
+        assertEquals(LocalDateTime.of(2021, 3, 5, 17, 0), occurrences.get(0));
+        assertEquals(LocalDateTime.of(2021, 3, 8, 17, 0), occurrences.get(1));
+    }
+
+    @Test
+    public void parseTestInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO;COUNT=3"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=XX;COUNT=3"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=0;COUNT=3"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=2021-03-01"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=3;BYMONTH=1"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;UNTIL=20400101").occurrences(FIRST));
+    }
+}
@@ -0,0 +1,74 @@
+package server.sport.repository;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void init() {
+        slowQueryLog.slowThresholdMs = 100;
+        appender.start();
+        ((ch.qos.logback.classic.Logger) SlowQueryLog.log).addAppender(appender);
+    }
+
+    @AfterEach
+    public void reset() {
+        ((ch.qos.logback.classic.Logger) SlowQueryLog.log).detachAppender(appender);
+    }
+
+    private static List<QueryInfo> query(String sql, Object parameter) throws NoSuchMethodException {
+        QueryInfo queryInfo = new QueryInfo(sql);
+        List<ParameterSetOperation> parameters = new ArrayList<>();
+        parameters.add(new ParameterSetOperation(PreparedStatement.class.getMethod("setInt", int.class, int.class), new Object[]{1, parameter}));
+        queryInfo.getParametersList().add(parameters);
+        return Collections.singletonList(queryInfo);
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setElapsedTime(elapsedMs);
+        execInfo.setSuccess(true);
+        return execInfo;
+    }
+
+    @Test
+    public void afterQueryTestLogsSlowQueriesWithParameters() throws NoSuchMethodException {
+        slowQueryLog.afterQuery(execution(99), query("SELECT * FROM activities WHERE team_id = ?", 7));
+        assertTrue(appender.list.isEmpty());
+
+        slowQueryLog.afterQuery(execution(250), query("SELECT * FROM activities WHERE team_id = ?", 7));
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        String message = event.getFormattedMessage();
+        assertTrue(message.startsWith("Slow query, 250 ms in no repository"));
+        assertTrue(message.contains("SELECT * FROM activities WHERE team_id = ?"));
+        assertTrue(message.contains("Params:[(1=7)]"));
+    }
+
+    @Test
+    public void afterQueryTestSamplesTheRest() throws NoSuchMethodException {
+        slowQueryLog.sampleRate = 1;
+        slowQueryLog.afterQuery(execution(3), query("SELECT * FROM sports WHERE sport_id = ?", 1));
+        assertEquals(Level.INFO, appender.list.get(0).getLevel());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("Sampled query, 3 ms"));
+    }
+}
@@ -0,0 +1,104 @@
+package server.sport.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ResourceNotFoundException;
+import server.sport.model.ActivitySummary;
+import server.sport.repository.ActivityRepository;
+import server.sport.testdata.IdReserver;
+import server.sport.testdata.SyntheticDataGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Rolled back after every test, the export runs inside the test transaction
+@SpringBootTest
+@Transactional
+public class ActivityExportTest {
+
+    @Autowired
+    ActivityService activityService;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    IdReserver idReserver;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    int teamId;
+    List<ActivitySummary> expected;
+
+    @BeforeEach
+    public void init() {
+        SyntheticDataGenerator.Result result = new SyntheticDataGenerator(jdbcTemplate, idReserver, 3)
+                .generate(SyntheticDataGenerator.Scale.ofReservations(3000).teams(3));
+        teamId = result.getFirstTeamId();
+        expected = activityRepository.findSummariesByTeamId(teamId);
+        assertTrue(expected.size() > 500);
+    }
+
+    @Test
+    public void exportActivitiesForTeamTestNdjson() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = activityService.exportActivitiesForTeam(teamId, "ndjson");
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+
+        String[] lines = write(response.getBody()).split("\n");
+        assertEquals(expected.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertEquals(expected.get(i).getActivityId(), line.get("activityId").asInt());
+            //the same JSON as the team activities endpoint
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(expected.get(i))), line);
+        }
+    }
+
+    @Test
+    public void exportActivitiesForTeamTestCsv() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = activityService.exportActivitiesForTeam(teamId, "csv");
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+
+        String[] lines = write(response.getBody()).split("\r\n");
+        assertEquals(expected.size() + 1, lines.length);
+        assertTrue(lines[0].startsWith("activityId,activityName,"));
+        ActivitySummary last = expected.get(expected.size() - 1);
+        assertTrue(lines[lines.length - 1].startsWith(last.getActivityId() + "," + last.getActivityName() + ","));
+    }
+
+    @Test
+    public void exportActivitiesForTeamTestInvalidRequest() {
+        assertThrows(EntityCannotBeProcessedExecption.class, () -> activityService.exportActivitiesForTeam(teamId, "xml"));
+        assertThrows(ResourceNotFoundException.class, () -> activityService.exportActivitiesForTeam(-1, "csv"));
+    }
+
+    @Test
+    public void escapeCsvTest() {
+        assertEquals("Training", ActivityExporter.escapeCsv("Training"));
+        assertEquals("\"Match, home\"", ActivityExporter.escapeCsv("Match, home"));
+        assertEquals("\"The \"\"big\"\" one\"", ActivityExporter.escapeCsv("The \"big\" one"));
+    }
+
+    private static String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
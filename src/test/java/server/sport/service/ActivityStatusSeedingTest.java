@@ -0,0 +1,205 @@
+package server.sport.service;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.sport.model.*;
+import server.sport.repository.*;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Compares seeding the statuses of a new activity row by row with the single INSERT ... SELECT used by ActivityService
+@SpringBootTest
+public class ActivityStatusSeedingTest {
+    private static final int PLAYERS = 60;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ActivityStatusRepository activityStatusRepository;
+
+    @Autowired
+    ActivityBatchRepository activityBatchRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UserStatusRepository userStatusRepository;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    ActivityTypeRepository activityTypeRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    UserStatus notAnswered;
+    Team team;
+    List<User> players;
+    Activity activity;
+
+    @BeforeEach
+    public void init() {
+        notAnswered = userStatusRepository.save(new UserStatus("HAS NOT ANSWERED", null));
+        Sport sport = sportRepository.save(new Sport("Volleyball"));
+        team = teamRepository.save(new Team("Volleyball Squad", sport, null));
+        UserType userType = userTypeRepository.save(new UserType("PLAYER", null));
+        players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new User("Player", "No " + i, "player" + i + "@squad.com", 20, "male", "+45" + i, null, null, null, null, userType, team));
+        }
+        players = userRepository.saveAll(players);
+
+        Location location = locationRepository.save(new Location("Volleyball Hall"));
+        Reservation reservation = reservationRepository.save(new Reservation(0, Timestamp.valueOf("2021-04-01 10:00:00"), Timestamp.valueOf("2021-04-01 12:00:00"), null, location));
+        activity = new Activity();
+        activity.setActivityName("Volleyball training");
+        activity.setCreator(players.get(0));
+        activity.setActivityType(activityTypeRepository.save(new ActivityType("TRAINING", null)));
+        activity.setTeam(team);
+        activity.setReservation(reservation);
+        activity = activityRepository.save(activity);
+    }
+
+    @AfterEach
+    public void reset() {
+        activityStatusRepository.deleteAll();
+        activityRepository.delete(activity);
+        reservationRepository.delete(activity.getReservation());
+        locationRepository.delete(activity.getReservation().getLocation());
+        activityTypeRepository.delete(activity.getActivityType());
+        userRepository.deleteAll(players);
+        userTypeRepository.delete(players.get(0).getUserType());
+        teamRepository.delete(team);
+        sportRepository.delete(team.getSport());
+        userStatusRepository.delete(notAnswered);
+        referenceDataCache.refreshUserStatuses();
+    }
+
+    @Test
+    public void insertStatusForTeamMembersTestMatchesRowByRow() {
+        //the old loop: a status lookup and an insert for every player
+        for (User player : players) {
+            int statusId = userStatusRepository.findByStatusName("HAS NOT ANSWERED").getStatusId();
+            jdbcTemplate.update("INSERT INTO activity_statuses (status_id, user_id, activity_id) VALUES (?, ?, ?)",
+                    statusId, player.getUserId(), activity.getActivityId());
+        }
+        List<Map<String, Object>> rowByRow = statuses();
+        assertEquals(PLAYERS, rowByRow.size());
+        clearStatuses();
+
+        int inserted = activityBatchRepository.insertStatusForTeamMembers(notAnswered.getStatusId(), activity.getActivityId(), team.getTeamId());
+        assertEquals(PLAYERS, inserted);
+        assertEquals(rowByRow, statuses());
+    }
+
+    //the round trips are what a network hop to the database multiplies, the times are only printed
+    @Test
+    public void insertStatusForTeamMembersTestOneRoundTrip() {
+        RoundTrips roundTrips = new RoundTrips();
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().addListener(roundTrips);
+        try {
+            long rowByRowNanos = 0;
+            long insertSelectNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                roundTrips.count = 0;
+                long start = System.nanoTime();
+                for (User player : players) {
+                    int statusId = userStatusRepository.findByStatusName("HAS NOT ANSWERED").getStatusId();
+                    jdbcTemplate.update("INSERT INTO activity_statuses (status_id, user_id, activity_id) VALUES (?, ?, ?)",
+                            statusId, player.getUserId(), activity.getActivityId());
+                }
+                rowByRowNanos += System.nanoTime() - start;
+                //one insert per player, and the lookup unless it is served from a cache
+                assertTrue(roundTrips.count >= PLAYERS, roundTrips.count + " round trips row by row");
+                clearStatuses();
+
+                roundTrips.count = 0;
+                start = System.nanoTime();
+                activityBatchRepository.insertStatusForTeamMembers(notAnswered.getStatusId(), activity.getActivityId(), team.getTeamId());
+                insertSelectNanos += System.nanoTime() - start;
+                assertEquals(1, roundTrips.count);
+                clearStatuses();
+            }
+            System.out.println("Seeding " + PLAYERS + " statuses, average of " + ROUNDS + " rounds: row by row "
+                    + rowByRowNanos / ROUNDS / 1000 + " us, INSERT ... SELECT " + insertSelectNanos / ROUNDS / 1000 + " us");
+        } finally {
+            ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().getListeners().remove(roundTrips);
+        }
+    }
+
+    @Test
+    public void insertStatusForTeamMembersTestKeepsSecondLevelCache() {
+        teamRepository.findById(team.getTeamId());
+        assertTrue(entityManagerFactory.getCache().contains(Team.class, team.getTeamId()));
+
+        activityBatchRepository.insertStatusForTeamMembers(notAnswered.getStatusId(), activity.getActivityId(), team.getTeamId());
+        assertTrue(entityManagerFactory.getCache().contains(Team.class, team.getTeamId()));
+    }
+
+    private List<Map<String, Object>> statuses() {
+        return jdbcTemplate.queryForList("SELECT status_id, user_id FROM activity_statuses WHERE activity_id = ? ORDER BY user_id", activity.getActivityId());
+    }
+
+    //statements of the test thread which reached the database, a JDBC batch counts once
+    private static class RoundTrips implements QueryExecutionListener {
+        private final Thread thread = Thread.currentThread();
+        private int count;
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (Thread.currentThread() == thread) {
+                count++;
+            }
+        }
+    }
+
+    private void clearStatuses() {
+        jdbcTemplate.update("DELETE FROM activity_statuses WHERE activity_id = ?", activity.getActivityId());
+    }
+}
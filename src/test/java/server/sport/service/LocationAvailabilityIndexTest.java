@@ -0,0 +1,184 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.sport.model.ActivitySeries;
+import server.sport.model.Location;
+import server.sport.model.ReservationInterval;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationAvailabilityIndexTest {
+
+    LocationAvailabilityIndex index;
+
+    @BeforeEach
+    public void init() {
+        index = new LocationAvailabilityIndex();
+        index.load(
+                Arrays.asList(new Location(1, "Court 1", null), new Location(2, "Court 2", null), new Location(3, "Court 3", null)),
+                new ArrayList<>(Arrays.asList(
+                        interval(1, 1, "2020-11-20 17:00:00", "2020-11-20 18:00:00"),
+                        interval(2, 1, "2020-11-20 12:00:00", "2020-11-20 20:00:00"),
+                        interval(3, 2, "2020-11-20 18:00:00", "2020-11-20 19:00:00"))));
+    }
+
+    @Test
+    public void findFreeLocationsTestOverlapping() {
+        assertEquals(Arrays.asList(2, 3), ids(index.findFreeLocations(time("2020-11-20 17:00:00"), time("2020-11-20 18:00:00"))));
+        assertEquals(Collections.singletonList(3), ids(index.findFreeLocations(time("2020-11-20 18:30:00"), time("2020-11-20 21:00:00"))));
+    }
+
+    @Test
+    public void findFreeLocationsTestTouchingIsFree() {
+        assertEquals(Arrays.asList(2, 3), ids(index.findFreeLocations(time("2020-11-20 19:00:00"), time("2020-11-20 19:30:00"))));
+        assertEquals(Arrays.asList(1, 2, 3), ids(index.findFreeLocations(time("2020-11-20 20:00:00"), time("2020-11-20 21:00:00"))));
+    }
+
+    @Test
+    public void findOverlappingReservationIdsTest() {
+        List<Integer> overlapping = index.findOverlappingReservationIds(1, time("2020-11-20 17:30:00"), time("2020-11-20 17:45:00"));
+        Collections.sort(overlapping);
+        assertEquals(Arrays.asList(1, 2), overlapping);
+        assertTrue(index.findOverlappingReservationIds(1, time("2020-11-20 20:00:00"), time("2020-11-20 21:00:00")).isEmpty());
+    }
+
+    @Test
+    public void reservationSavedTestMovesReservation() {
+        index.reservationSaved(3, 3, time("2020-11-20 18:00:00"), time("2020-11-20 19:00:00"));
+        assertEquals(Collections.singletonList(2), ids(index.findFreeLocations(time("2020-11-20 18:00:00"), time("2020-11-20 19:00:00"))));
+    }
+
+    @Test
+    public void reservationDeletedTest() {
+        assertEquals(Arrays.asList(2, 3), ids(index.findFreeLocations(time("2020-11-20 12:00:00"), time("2020-11-20 17:00:00"))));
+        index.reservationDeleted(2);
+        assertEquals(Arrays.asList(1, 2, 3), ids(index.findFreeLocations(time("2020-11-20 12:00:00"), time("2020-11-20 17:00:00"))));
+    }
+
+    @Test
+    public void locationSavedAndDeletedTest() {
+        index.locationSaved(new Location(4, "Court 4", null));
+        index.locationDeleted(1);
+        assertEquals(Arrays.asList(2, 3, 4), ids(index.findFreeLocations(time("2020-11-20 12:00:00"), time("2020-11-20 13:00:00"))));
+    }
+
+    @Test
+    public void seriesSavedAndDeletedTest() {
+        index.seriesSaved(series(7, 3, "2020-11-23 10:00:00", "FREQ=WEEKLY;COUNT=3"));
+        //the second occurrence is on 2020-11-30
+        assertEquals(Arrays.asList(1, 2), ids(index.findFreeLocations(time("2020-11-30 10:30:00"), time("2020-11-30 12:00:00"))));
+        assertEquals(Arrays.asList(1, 2, 3), ids(index.findFreeLocations(time("2020-11-30 11:00:00"), time("2020-11-30 12:00:00"))));
+        //occurrences are not reservations
+        assertTrue(index.findOverlappingReservationIds(3, time("2020-11-30 10:30:00"), time("2020-11-30 12:00:00")).isEmpty());
+
+        index.seriesDeleted(7);
+        assertEquals(Arrays.asList(1, 2, 3), ids(index.findFreeLocations(time("2020-11-30 10:30:00"), time("2020-11-30 12:00:00"))));
+    }
+
+    @Test
+    public void loadTestWithSeries() {
+        index.load(Collections.singletonList(new Location(1, "Court 1", null)), new ArrayList<>(),
+                Arrays.asList(series(7, 1, "2020-11-23 10:00:00", "FREQ=WEEKLY;COUNT=3"),
+                        series(8, 1, "2020-11-24 10:00:00", "FREQ=WEEKLY;COUNT=3")));
+        assertTrue(index.findFreeLocations(time("2020-12-07 10:00:00"), time("2020-12-07 11:00:00")).isEmpty());
+        assertTrue(index.findFreeLocations(time("2020-12-08 10:00:00"), time("2020-12-08 11:00:00")).isEmpty());
+
+        index.seriesDeleted(7);
+        assertTrue(ids(index.findFreeLocations(time("2020-12-07 10:00:00"), time("2020-12-07 11:00:00"))).contains(1));
+        assertTrue(index.findFreeLocations(time("2020-12-08 10:00:00"), time("2020-12-08 11:00:00")).isEmpty());
+    }
+
+    @Test
+    public void changesBeforeLoadTestAreReplayed() {
+        LocationAvailabilityIndex coldIndex = new LocationAvailabilityIndex();
+        coldIndex.reservationSaved(10, 1, time("2020-11-20 10:00:00"), time("2020-11-20 11:00:00"));
+        assertFalse(coldIndex.isWarm());
+
+        coldIndex.load(Collections.singletonList(new Location(1, "Court 1", null)), new ArrayList<>());
+        assertTrue(coldIndex.isWarm());
+        assertTrue(coldIndex.findFreeLocations(time("2020-11-20 10:30:00"), time("2020-11-20 12:00:00")).isEmpty());
+    }
+
+    @Test
+    public void findBusySlotsTestOutsideHorizon() {
+        long firstSlot = time("2020-11-20 11:00:00").getTime() / LocationAvailabilityIndex.SLOT;
+        Map<Integer, BitSet> busySlots = index.findBusySlots(firstSlot, 40);
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(busySlots.keySet()));
+        //12:00 - 20:00 from the 5th slot on, the map covers 11:00 - 21:00
+        assertEquals(4, busySlots.get(1).nextSetBit(0));
+        assertEquals(36, busySlots.get(1).nextClearBit(4));
+        assertEquals(4, busySlots.get(2).cardinality());
+        assertTrue(busySlots.get(3).isEmpty());
+    }
+
+    @Test
+    public void findBusySlotsTestHorizonFollowsChanges() {
+        //tomorrow is inside the precomputed horizon
+        Timestamp nine = Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(9, 0));
+        long firstSlot = nine.getTime() / LocationAvailabilityIndex.SLOT;
+        index.reservationSaved(20, 3, Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(10, 0)),
+                Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(11, 0)));
+        index.reservationSaved(21, 3, Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(10, 30)),
+                Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(11, 10)));
+        BitSet busy = index.findBusySlots(firstSlot, 12).get(3);
+        assertEquals(4, busy.nextSetBit(0));
+        assertEquals(9, busy.nextClearBit(4));
+
+        //the slots of the deleted reservation that the other one still covers stay busy
+        index.reservationDeleted(20);
+        busy = index.findBusySlots(firstSlot, 12).get(3);
+        assertEquals(6, busy.nextSetBit(0));
+        assertEquals(3, busy.cardinality());
+
+        index.reservationDeleted(21);
+        assertTrue(index.findBusySlots(firstSlot, 12).get(3).isEmpty());
+    }
+
+    @Test
+    public void findBusySlotsTestHorizonHasSeriesOccurrences() {
+        Timestamp nine = Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(9, 0));
+        long firstSlot = nine.getTime() / LocationAvailabilityIndex.SLOT;
+        //daily 10:00 - 11:00 from tomorrow on
+        index.seriesSaved(series(7, 3, Timestamp.valueOf(LocalDate.now().plusDays(1).atTime(10, 0)).toString(), "FREQ=DAILY;COUNT=5"));
+        BitSet busy = index.findBusySlots(firstSlot, 24 * 4).get(3);
+        assertEquals(4, busy.nextSetBit(0));
+        assertEquals(8, busy.nextClearBit(4));
+        assertEquals(4, busy.cardinality());
+        assertEquals(5 * 4, index.findBusySlots(firstSlot, 5 * 24 * 4).get(3).cardinality());
+
+        index.seriesDeleted(7);
+        assertTrue(index.findBusySlots(firstSlot, 24 * 4).get(3).isEmpty());
+    }
+
+    //occurrences of one hour
+    private static ActivitySeries series(int seriesId, int locationId, String firstStartAt, String recurrenceRule) {
+        Timestamp startAt = time(firstStartAt);
+        ActivitySeries series = new ActivitySeries("Training", null, null, recurrenceRule, startAt,
+                new Timestamp(startAt.getTime() + 60 * 60 * 1000L), null, null, null, new Location(locationId));
+        series.setSeriesId(seriesId);
+        return series;
+    }
+
+    private static List<Integer> ids(List<Location> locations) {
+        return locations.stream().map(Location::getLocationId).collect(Collectors.toList());
+    }
+
+    private static Timestamp time(String value) {
+        return Timestamp.valueOf(value);
+    }
+
+    private static ReservationInterval interval(int reservationId, int locationId, String startAt, String endAt) {
+        return new ReservationInterval() {
+            public int getReservationId() { return reservationId; }
+            public int getLocationId() { return locationId; }
+            public Timestamp getStartAt() { return time(startAt); }
+            public Timestamp getEndAt() { return time(endAt); }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.sport.model.Sport;
+import server.sport.model.UserStatus;
+import server.sport.repository.ActivityTypeRepository;
+import server.sport.repository.SportRepository;
+import server.sport.repository.UserStatusRepository;
+import server.sport.repository.UserTypeRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReferenceDataCacheTest {
+
+    ReferenceDataCache cache;
+
+    @BeforeEach
+    public void init() {
+        cache = new ReferenceDataCache();
+        cache.userStatusRepository = mock(UserStatusRepository.class);
+        cache.activityTypeRepository = mock(ActivityTypeRepository.class);
+        cache.userTypeRepository = mock(UserTypeRepository.class);
+        cache.sportRepository = mock(SportRepository.class);
+
+        when(cache.userStatusRepository.findAll()).thenReturn(Arrays.asList(
+                new UserStatus(1, "READY", null), new UserStatus(4, "HAS NOT ANSWERED", null)));
+        when(cache.activityTypeRepository.findAll()).thenReturn(new ArrayList<>());
+        when(cache.userTypeRepository.findAll()).thenReturn(new ArrayList<>());
+        when(cache.sportRepository.findAll()).thenReturn(Collections.singletonList(new Sport(1, "Handball", null)));
+        cache.loadAll();
+    }
+
+    @Test
+    public void findTestServedFromMemory() {
+        assertEquals(4, cache.findUserStatusByName("HAS NOT ANSWERED").get().getStatusId());
+        assertEquals("Handball", cache.findSportById(1).get().getSportName());
+        assertEquals(1, cache.findSportByName("Handball").get().getSportId());
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+        verify(cache.userStatusRepository, never()).findByStatusName(anyString());
+        verify(cache.sportRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void findTestMissLoadsFromRepositoryAndRefreshes() {
+        Sport football = new Sport(2, "Football", null);
+        when(cache.sportRepository.findById(2)).thenReturn(Optional.of(football));
+        when(cache.sportRepository.findAll()).thenReturn(Arrays.asList(new Sport(1, "Handball", null), football));
+
+        assertEquals("Football", cache.findSportById(2).get().getSportName());
+        assertEquals(1, cache.getMissCount());
+
+        //the refresh made the new sport available under its name as well
+        assertTrue(cache.findSportByName("Football").isPresent());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void findTestUnknownIsEmpty() {
+        when(cache.userStatusRepository.findByStatusName("LATE")).thenReturn(null);
+
+        assertFalse(cache.findUserStatusByName("LATE").isPresent());
+        assertEquals(1, cache.getMissCount());
+        //nothing new was found, so the table is not reloaded
+        verify(cache.userStatusRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,97 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.sport.model.Location;
+import server.sport.model.Reservation;
+import server.sport.repository.LocationRepository;
+import server.sport.repository.ReservationRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * The conflict checks have to read the reservations with FOR UPDATE: under MySQL's REPEATABLE READ a plain read
+ * returns the snapshot of the transaction's first read and misses a booking committed while waiting for the
+ * location lock. H2 reads committed rows either way, so the tests check that the rows read are locked.
+ */
+@SpringBootTest
+public class ReservationConflictCheckerTest {
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Location location;
+    Reservation reservation;
+
+    @BeforeEach
+    public void init() {
+        location = locationRepository.save(new Location("Locking Court"));
+        reservation = reservationRepository.save(new Reservation(0, Timestamp.valueOf("2030-05-01 10:00:00"),
+                Timestamp.valueOf("2030-05-01 11:00:00"), null, location));
+    }
+
+    @AfterEach
+    public void reset() {
+        reservationRepository.deleteById(reservation.getReservationId());
+        locationRepository.deleteById(location.getLocationId());
+    }
+
+    @Test
+    public void findOverlappingReservationIdsTestLocksTheRows() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            List<Integer> overlapping = reservationRepository.findOverlappingReservationIds(location.getLocationId(),
+                    Timestamp.valueOf("2030-05-01 10:30:00"), Timestamp.valueOf("2030-05-01 12:00:00"));
+            assertEquals(Collections.singletonList(reservation.getReservationId()), overlapping);
+            assertThrows(SQLException.class, this::updateReservation);
+            return null;
+        });
+    }
+
+    @Test
+    public void findIntervalsAtLocationTestLocksTheRows() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertEquals(1, reservationRepository.findIntervalsAtLocation(location.getLocationId(),
+                    Timestamp.valueOf("2030-05-01 00:00:00"), Timestamp.valueOf("2030-05-02 00:00:00")).size());
+            assertThrows(SQLException.class, this::updateReservation);
+            return null;
+        });
+    }
+
+    //a second connection, outside the transaction, which gives up on the row lock after 100 ms
+    private void updateReservation() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            ResultSet lockTimeout = statement.executeQuery("SELECT LOCK_TIMEOUT()");
+            lockTimeout.next();
+            int pooledLockTimeout = lockTimeout.getInt(1);
+            statement.execute("SET LOCK_TIMEOUT 100");
+            try {
+                statement.executeUpdate("UPDATE reservations SET end_at = end_at WHERE reservation_id = " + reservation.getReservationId());
+            } finally {
+                statement.execute("SET LOCK_TIMEOUT " + pooledLockTimeout);
+            }
+        }
+    }
+}
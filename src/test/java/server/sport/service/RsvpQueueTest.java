@@ -0,0 +1,303 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import server.sport.enumerated.TeamEventType;
+import server.sport.exception.EntityCannotBeProcessedExecption;
+import server.sport.exception.ResourceNotFoundException;
+import server.sport.model.*;
+import server.sport.repository.*;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//The scheduled flush is turned off in the tests, they flush the queue themselves
+@SpringBootTest
+public class RsvpQueueTest {
+
+    @Autowired
+    RsvpQueue rsvpQueue;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    RsvpTally rsvpTally;
+
+    @Autowired
+    TeamEventBroadcaster teamEventBroadcaster;
+
+    @Autowired
+    ActivityService activityService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ActivityStatusRepository activityStatusRepository;
+
+    @Autowired
+    ActivityBatchRepository activityBatchRepository;
+
+    @Autowired
+    UserStatusRepository userStatusRepository;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    ActivityTypeRepository activityTypeRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ActivityRepository activityRepository;
+
+    UserStatus notAnswered;
+    UserStatus attending;
+    UserStatus notAttending;
+    Team team;
+    User player;
+    Activity activity;
+
+    @BeforeEach
+    public void init() {
+        notAnswered = userStatusRepository.save(new UserStatus("HAS NOT ANSWERED", null));
+        attending = userStatusRepository.save(new UserStatus("ATTENDING", null));
+        notAttending = userStatusRepository.save(new UserStatus("NOT ATTENDING", null));
+        referenceDataCache.refreshUserStatuses();
+        Sport sport = sportRepository.save(new Sport("Volleyball"));
+        team = teamRepository.save(new Team("Volleyball Squad", sport, null));
+        UserType userType = userTypeRepository.save(new UserType("PLAYER", null));
+        player = userRepository.save(new User("Anna", "Berg", "anna@squad.com", 20, "female", "+4511223344", null, null, null, null, userType, team));
+
+        Location location = locationRepository.save(new Location("Volleyball Hall"));
+        Reservation reservation = reservationRepository.save(new Reservation(0, Timestamp.valueOf("2021-04-01 10:00:00"), Timestamp.valueOf("2021-04-01 12:00:00"), null, location));
+        activity = new Activity();
+        activity.setActivityName("Volleyball training");
+        activity.setCreator(player);
+        activity.setActivityType(activityTypeRepository.save(new ActivityType("TRAINING", null)));
+        activity.setTeam(team);
+        activity.setReservation(reservation);
+        activity = activityRepository.save(activity);
+        activityBatchRepository.insertStatusForTeamMembers(notAnswered.getStatusId(), activity.getActivityId(), team.getTeamId());
+    }
+
+    @AfterEach
+    public void reset() {
+        rsvpQueue.flush();
+        activityStatusRepository.deleteAll();
+        activityRepository.delete(activity);
+        reservationRepository.delete(activity.getReservation());
+        locationRepository.delete(activity.getReservation().getLocation());
+        activityTypeRepository.delete(activity.getActivityType());
+        userRepository.delete(player);
+        userTypeRepository.delete(player.getUserType());
+        teamRepository.delete(team);
+        sportRepository.delete(team.getSport());
+        userStatusRepository.delete(notAnswered);
+        userStatusRepository.delete(attending);
+        userStatusRepository.delete(notAttending);
+        referenceDataCache.refreshUserStatuses();
+    }
+
+    @Test
+    public void enqueueTestCoalescesAnswers() {
+        CompletableFuture<Integer> first = rsvpQueue.enqueue(player.getUserId(), activity.getActivityId(), attending.getStatusId(), attending.getStatusName(), false);
+        CompletableFuture<Integer> second = rsvpQueue.enqueue(player.getUserId(), activity.getActivityId(), notAttending.getStatusId(), notAttending.getStatusName(), false);
+        assertEquals(1, rsvpQueue.getPendingCount());
+        assertFalse(first.isDone());
+
+        rsvpQueue.flush();
+        assertEquals(0, rsvpQueue.getPendingCount());
+        assertEquals(1, first.join());
+        assertEquals(1, second.join());
+        assertEquals(notAttending.getStatusId(), storedStatusId());
+    }
+
+    @Test
+    public void flushTestRetriesAcceptedAnswers() throws InterruptedException {
+        ActivityBatchRepository repository = rsvpQueue.activityBatchRepository;
+        rsvpQueue.activityBatchRepository = mock(ActivityBatchRepository.class);
+        when(rsvpQueue.activityBatchRepository.updateStatuses(anyList())).thenThrow(new QueryTimeoutException("Lock wait timeout"));
+        CompletableFuture<Integer> accepted;
+        try {
+            accepted = rsvpQueue.enqueue(player.getUserId(), activity.getActivityId(), attending.getStatusId(), attending.getStatusName(), false);
+            rsvpQueue.flush();
+            //the retry waits for its delay
+            rsvpQueue.flush();
+            verify(rsvpQueue.activityBatchRepository, times(1)).updateStatuses(anyList());
+            assertEquals(1, rsvpQueue.getPendingCount());
+            assertFalse(accepted.isDone());
+        } finally {
+            rsvpQueue.activityBatchRepository = repository;
+        }
+        for (int i = 0; i < 100 && rsvpQueue.getPendingCount() > 0; i++) {
+            Thread.sleep(RsvpQueue.RETRY_DELAY_MS / 10);
+            rsvpQueue.flush();
+        }
+        assertEquals(1, accepted.join());
+        assertEquals(attending.getStatusId(), storedStatusId());
+    }
+
+    @Test
+    public void flushTestFailsWaitingAnswers() {
+        ActivityBatchRepository repository = rsvpQueue.activityBatchRepository;
+        rsvpQueue.activityBatchRepository = mock(ActivityBatchRepository.class);
+        when(rsvpQueue.activityBatchRepository.updateStatuses(anyList())).thenThrow(new QueryTimeoutException("Lock wait timeout"));
+        try {
+            CompletableFuture<Integer> accepted = rsvpQueue.enqueue(player.getUserId(), activity.getActivityId(), attending.getStatusId(), attending.getStatusName(), false);
+            rsvpQueue.flush();
+            //the newer answer replaces the one waiting for its retry
+            CompletableFuture<Integer> waiting = rsvpQueue.enqueue(player.getUserId(), activity.getActivityId(), notAttending.getStatusId(), notAttending.getStatusName(), true);
+            rsvpQueue.flushAll();
+            assertEquals(0, rsvpQueue.getPendingCount());
+            assertTrue(assertThrows(CompletionException.class, waiting::join).getCause() instanceof QueryTimeoutException);
+            assertTrue(accepted.isCompletedExceptionally());
+        } finally {
+            rsvpQueue.activityBatchRepository = repository;
+        }
+        assertEquals(notAnswered.getStatusId(), storedStatusId());
+    }
+
+    @Test
+    public void updateStatusInActivityTestReadsOwnWrites() {
+        ResponseEntity<Integer> accepted = userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "ATTENDING", UserService.ACK_ACCEPTED);
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        assertEquals(notAnswered.getStatusId(), storedStatusId());
+
+        //the activity shows the answer before it is written
+        ActivityParticipant participant = activityService.getActivityById(activity.getActivityId()).getBody().getParticipants().iterator().next();
+        assertEquals("ATTENDING", participant.getStatusName());
+
+        rsvpQueue.flush();
+        assertEquals(attending.getStatusId(), storedStatusId());
+    }
+
+    @Test
+    public void updateStatusInActivityTestWaitsForFlush() throws InterruptedException {
+        CompletableFuture<ResponseEntity<Integer>> response = CompletableFuture.supplyAsync(() ->
+                userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "NOT ATTENDING", UserService.ACK_FLUSHED));
+        while (rsvpQueue.getPendingCount() == 0) {
+            Thread.sleep(5);
+        }
+        rsvpQueue.flush();
+        assertEquals(HttpStatus.OK, response.join().getStatusCode());
+        assertEquals(1, response.join().getBody());
+        assertEquals(notAttending.getStatusId(), storedStatusId());
+    }
+
+    @Test
+    public void updateStatusInActivityTestInvalidAnswers() {
+        assertThrows(EntityCannotBeProcessedExecption.class,
+                () -> userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "ATTENDING", "later"));
+        assertThrows(org.springframework.data.rest.webmvc.ResourceNotFoundException.class,
+                () -> userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "MAYBE", UserService.ACK_ACCEPTED));
+        assertEquals(0, rsvpQueue.getPendingCount());
+
+        //no status row of the user in the activity
+        CompletableFuture<ResponseEntity<Integer>> response = CompletableFuture.supplyAsync(() ->
+                userService.updateStatusInActivity(player.getUserId(), activity.getActivityId() + 1000, "ATTENDING", UserService.ACK_FLUSHED));
+        while (rsvpQueue.getPendingCount() == 0) {
+            Thread.yield();
+        }
+        rsvpQueue.flush();
+        Throwable failure = assertThrows(Exception.class, response::join).getCause();
+        assertTrue(failure instanceof ResourceNotFoundException);
+    }
+
+    @Test
+    public void getTallyTestFollowsFlushedAnswers() {
+        //the statuses of the fixture are inserted past the services, the tally reads them on the first read
+        Map<String, Long> tally = activityService.getTally(activity.getActivityId()).getBody();
+        assertEquals(1L, tally.get("HAS NOT ANSWERED"));
+        assertEquals(0L, tally.get("ATTENDING"));
+
+        userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "ATTENDING", UserService.ACK_ACCEPTED);
+        assertEquals(0L, activityService.getTally(activity.getActivityId()).getBody().get("ATTENDING"));
+        rsvpQueue.flush();
+        tally = activityService.getTally(activity.getActivityId()).getBody();
+        assertEquals(0L, tally.get("HAS NOT ANSWERED"));
+        assertEquals(1L, tally.get("ATTENDING"));
+
+        //a rebuild counts the same
+        rsvpTally.load();
+        assertEquals(tally, activityService.getTally(activity.getActivityId()).getBody());
+        assertThrows(ResourceNotFoundException.class, () -> activityService.getTally(activity.getActivityId() + 1000));
+    }
+
+    @Test
+    public void flushTestPublishesStatusChanges() throws InterruptedException {
+        List<TeamEvent> events = new CopyOnWriteArrayList<>();
+        AtomicBoolean disconnected = new AtomicBoolean();
+        teamEventBroadcaster.subscribe(team.getTeamId(), new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (disconnected.get()) {
+                    throw new IOException("Broken pipe");
+                }
+                for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                    if (data.getData() instanceof TeamEvent) {
+                        events.add((TeamEvent) data.getData());
+                    }
+                }
+            }
+        });
+        userService.updateStatusInActivity(player.getUserId(), activity.getActivityId(), "ATTENDING", UserService.ACK_ACCEPTED);
+        rsvpQueue.flush();
+        for (int i = 0; i < 100 && events.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, events.size());
+        assertEquals(TeamEventType.STATUS_CHANGED, events.get(0).getType());
+        assertEquals(player.getUserId(), events.get(0).getUserId());
+        assertEquals("ATTENDING", events.get(0).getStatusName());
+
+        //a client which is gone is dropped on the next event
+        disconnected.set(true);
+        teamEventBroadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, team.getTeamId(), activity.getActivityId()));
+        for (int i = 0; i < 100 && teamEventBroadcaster.getSubscriberCount(team.getTeamId()) > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, teamEventBroadcaster.getSubscriberCount(team.getTeamId()));
+    }
+
+    private int storedStatusId() {
+        return jdbcTemplate.queryForObject("SELECT status_id FROM activity_statuses WHERE activity_id = ? AND user_id = ?",
+                Integer.class, activity.getActivityId(), player.getUserId());
+    }
+}
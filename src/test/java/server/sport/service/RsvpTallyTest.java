@@ -0,0 +1,124 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import server.sport.repository.ActivityStatusRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RsvpTallyTest {
+
+    RsvpTally tally;
+
+    @BeforeEach
+    public void init() {
+        tally = new RsvpTally();
+        tally.activityStatusRepository = mock(ActivityStatusRepository.class);
+    }
+
+    @AfterEach
+    public void reset() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void loadTestWriteWaitsForTheCounts() throws InterruptedException {
+        Thread[] flush = new Thread[1];
+        //a flush starts while the counts are read, its answer is not in them
+        when(tally.activityStatusRepository.countByActivityAndStatus()).thenAnswer(invocation -> {
+            flush[0] = new Thread(() -> tally.write(() -> {
+                tally.statusChanged(1, 4, 1);
+                return null;
+            }));
+            flush[0].start();
+            flush[0].join(100);
+            assertTrue(flush[0].isAlive());
+            return Arrays.asList(row(1, 4, 5L), row(2, 4, 3L));
+        });
+        tally.load();
+        flush[0].join();
+
+        assertEquals(counts(4, 4L, 1, 1L), tally.getTally(1));
+        assertEquals(counts(4, 3L), tally.getTally(2));
+        verify(tally.activityStatusRepository, never()).countByStatusForActivity(anyInt());
+    }
+
+    @Test
+    public void loadTestWrittenAnswerIsCountedOnce() {
+        //the answer was written and counted before the load, the counts already have it
+        tally.write(() -> {
+            tally.statusChanged(1, 4, 1);
+            return null;
+        });
+        when(tally.activityStatusRepository.countByActivityAndStatus()).thenReturn(Arrays.asList(row(1, 4, 4L), row(1, 1, 1L)));
+        tally.load();
+
+        assertEquals(counts(4, 4L, 1, 1L), tally.getTally(1));
+    }
+
+    @Test
+    public void getTallyTestWaitsForACommittingActivity() throws InterruptedException {
+        when(tally.activityStatusRepository.countByStatusForActivity(1)).thenReturn(Collections.singletonList(new Object[]{4, 5L}));
+        TransactionSynchronizationManager.initSynchronization();
+        tally.statusesInserted(Collections.singletonList(1), 4, 5);
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        //the rows are committed, but not counted yet
+        AtomicReference<Map<Integer, Long>> read = new AtomicReference<>();
+        Thread reader = new Thread(() -> read.set(tally.getTally(1)));
+        reader.start();
+        reader.join(100);
+        assertTrue(reader.isAlive());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        reader.join();
+
+        assertEquals(counts(4, 5L), read.get());
+        verify(tally.activityStatusRepository, never()).countByStatusForActivity(1);
+    }
+
+    @Test
+    public void statusesInsertedTestRollbackIsNotCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+        tally.statusesInserted(Collections.singletonList(1), 4, 5);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        when(tally.activityStatusRepository.countByStatusForActivity(1)).thenReturn(Collections.emptyList());
+        assertEquals(counts(), tally.getTally(1));
+    }
+
+    @Test
+    public void statusChangedTestNotLoadedActivityIsRead() {
+        tally.statusChanged(1, 4, 1);
+        when(tally.activityStatusRepository.countByStatusForActivity(1)).thenReturn(Collections.singletonList(new Object[]{1, 1L}));
+        assertEquals(counts(1, 1L), tally.getTally(1));
+        verify(tally.activityStatusRepository, times(1)).countByStatusForActivity(1);
+    }
+
+    private static Object[] row(int activityId, int statusId, long users) {
+        return new Object[]{activityId, statusId, users};
+    }
+
+    private static Map<Integer, Long> counts(Object... statusIdsAndUsers) {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (int i = 0; i < statusIdsAndUsers.length; i += 2) {
+            counts.put((Integer) statusIdsAndUsers[i], (Long) statusIdsAndUsers[i + 1]);
+        }
+        return counts;
+    }
+}
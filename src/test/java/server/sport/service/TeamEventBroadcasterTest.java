@@ -0,0 +1,161 @@
+package server.sport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import server.sport.enumerated.TeamEventType;
+import server.sport.model.TeamEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamEventBroadcasterTest {
+
+    private final TeamEventBroadcaster broadcaster = new TeamEventBroadcaster();
+
+    //keeps what would be written to the connection, built like SseEmitter.send does
+    private static class RecordingEmitter extends SseEmitter {
+        final List<List<Object>> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch released;
+
+        RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            List<Object> parts = new ArrayList<>();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                parts.add(part.getData());
+            }
+            sent.add(parts);
+        }
+    }
+
+    @AfterEach
+    public void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    public void publishTestOnlyToTheTeam() throws InterruptedException {
+        RecordingEmitter volleyball = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter football = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1, volleyball);
+        broadcaster.subscribe(2, football);
+
+        broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_CREATED, 1, 10));
+        broadcaster.publish(new TeamEvent(TeamEventType.STATUS_CHANGED, 1, 10, 5, "READY"));
+        for (int i = 0; i < 100 && volleyball.sent.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, volleyball.sent.size());
+        assertTrue(football.sent.isEmpty());
+        assertTrue(broadcaster.hasSubscribers());
+    }
+
+    @Test
+    public void publishTestDisconnectsSlowSubscriber() throws InterruptedException {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1, slow);
+        broadcaster.subscribe(1, fast);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TeamEventBroadcaster.BUFFER_SIZE; i++) {
+            broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, 1, i));
+        }
+        assertTrue(slow.sending.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && fast.sent.size() < TeamEventBroadcaster.BUFFER_SIZE; i++) {
+            Thread.sleep(10);
+        }
+        //one event of the slow subscriber is being sent, the rest fills its buffer up to the last slot
+        broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, 1, -1));
+        broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_UPDATED, 1, -2));
+        //publishing never waits for the connection
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, broadcaster.getSubscriberCount(1));
+
+        stuck.countDown();
+        for (int i = 0; i < 100 && fast.sent.size() < TeamEventBroadcaster.BUFFER_SIZE + 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(TeamEventBroadcaster.BUFFER_SIZE + 2, fast.sent.size());
+    }
+
+    @Test
+    public void publishTestStalledSubscribersDoNotHoldTheDispatcher() throws InterruptedException {
+        broadcaster.writeTimeoutMs = 200;
+        //more clients which stopped reading than dispatcher threads
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter first = new RecordingEmitter(stalled);
+        RecordingEmitter second = new RecordingEmitter(stalled);
+        RecordingEmitter third = new RecordingEmitter(stalled);
+        RecordingEmitter reading = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1, first);
+        broadcaster.subscribe(2, second);
+        broadcaster.subscribe(3, third);
+        broadcaster.subscribe(4, reading);
+
+        try {
+            broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_CREATED, 1, 10));
+            broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_CREATED, 2, 11));
+            broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_CREATED, 3, 12));
+            assertTrue(first.sending.await(1, TimeUnit.SECONDS));
+            assertTrue(second.sending.await(1, TimeUnit.SECONDS));
+            broadcaster.publish(new TeamEvent(TeamEventType.ACTIVITY_CREATED, 4, 13));
+            for (int i = 0; i < 200 && reading.sent.isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, reading.sent.size());
+            //the stalled ones were disconnected after the write timeout
+            assertEquals(0, broadcaster.getSubscriberCount(1));
+            assertEquals(0, broadcaster.getSubscriberCount(2));
+            assertEquals(1, broadcaster.getSubscriberCount(4));
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    @Test
+    public void publishTestEverySubscriberGetsTheSameEvent() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter second = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter third = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1, first);
+        broadcaster.subscribe(1, second);
+        broadcaster.subscribe(1, third);
+
+        TeamEvent event = new TeamEvent(TeamEventType.ACTIVITY_CREATED, 1, 10);
+        for (int i = 0; i < 20; i++) {
+            broadcaster.publish(event);
+        }
+        for (int i = 0; i < 100 && (first.sent.size() < 20 || second.sent.size() < 20 || third.sent.size() < 20); i++) {
+            Thread.sleep(10);
+        }
+        //id, name and data, the event and the blank line which ends it - once, however many subscribers built it
+        assertEquals(20, first.sent.size());
+        assertEquals(first.sent, second.sent);
+        assertEquals(first.sent, third.sent);
+        assertEquals(3, first.sent.get(0).size());
+        assertEquals("id:1\nevent:ACTIVITY_CREATED\ndata:", first.sent.get(0).get(0));
+        assertSame(event, first.sent.get(0).get(1));
+        assertEquals("\n\n", first.sent.get(0).get(2));
+        assertEquals(3, broadcaster.getSubscriberCount(1));
+    }
+}
@@ -0,0 +1,69 @@
+package server.sport.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import server.sport.model.Sport;
+import server.sport.model.Team;
+import server.sport.repository.SportRepository;
+import server.sport.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The team list is read with one query and never touches the users or activities of a team
+@SpringBootTest
+public class TeamListTest {
+
+    @Autowired
+    TeamService teamService;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Sport sport;
+    Team team;
+
+    @BeforeEach
+    public void init() {
+        sport = sportRepository.save(new Sport("Handball"));
+        team = teamRepository.save(new Team("Hand Team", sport, null));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void reset() {
+        statistics.setStatisticsEnabled(false);
+        teamRepository.delete(team);
+        sportRepository.delete(sport);
+    }
+
+    @Test
+    public void getAllTeamsTestSingleQuery() {
+        long before = statistics.getPrepareStatementCount();
+        List<Team> teams = teamService.getAllTeams().getBody();
+        assertEquals(1, statistics.getPrepareStatementCount() - before);
+
+        Team found = teams.stream().filter(t -> t.getTeamId() == team.getTeamId()).findFirst().get();
+        assertEquals("Hand Team", found.getTeamName());
+        assertEquals(sport.getSportId(), found.getSport().getSportId());
+        assertEquals("Handball", found.getSport().getSportName());
+        assertNull(found.getUsers());
+        assertNull(found.getActivities());
+    }
+}
@@ -0,0 +1,107 @@
+package server.sport.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import server.sport.model.*;
+import server.sport.repository.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The roster page is read with the projection and its count
+@SpringBootTest
+public class TeamRosterTest {
+    private static final int PLAYERS = 12;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    TeamService teamService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserTypeRepository userTypeRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SportRepository sportRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Sport sport;
+    Team team;
+    UserType userType;
+    List<User> players;
+
+    @BeforeEach
+    public void init() {
+        sport = sportRepository.save(new Sport("Rugby"));
+        team = teamRepository.save(new Team("Rugby Pack", sport, null));
+        userType = userTypeRepository.save(new UserType("PLAYER", null));
+        players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new User("Player", "No " + (char) ('A' + i), "rugby" + i + "@pack.com", 20, "male", "+45" + i, null, null, null, null, userType, team));
+        }
+        players = userRepository.saveAll(players);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void reset() {
+        statistics.setStatisticsEnabled(false);
+        userRepository.deleteAll(players);
+        userTypeRepository.delete(userType);
+        teamRepository.delete(team);
+        sportRepository.delete(sport);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getTeamMembersTestConstantQueries() {
+        long before = statistics.getPrepareStatementCount();
+        Map<String, Object> response = userService.getTeamMembers(team.getTeamId(), new String[]{"lastName", "asc"}, 0, 5).getBody();
+        //roster and count, independent of the page size
+        assertEquals(2, statistics.getPrepareStatementCount() - before);
+
+        List<BasicUser> users = (List<BasicUser>) response.get("users");
+        assertEquals(5, users.size());
+        assertEquals((long) PLAYERS, response.get("totalItems"));
+        assertEquals("No A", users.get(0).getLastName());
+        assertEquals("No E", users.get(4).getLastName());
+        for (BasicUser user : users) {
+            assertSame(users.get(0).getTeam(), user.getTeam());
+        }
+        Team rosterTeam = users.get(0).getTeam();
+        assertEquals("Rugby Pack", rosterTeam.getTeamName());
+        assertEquals("Rugby", rosterTeam.getSport().getSportName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getTeamMembersTestTeamServiceDelegates() {
+        Map<String, Object> response = teamService.getTeamMembers(team.getTeamId(), new String[]{"userId", "desc"}, 1, 5).getBody();
+        List<BasicUser> users = (List<BasicUser>) response.get("users");
+        assertEquals(players.get(PLAYERS - 6).getUserId(), users.get(0).getUserId());
+        assertEquals(1, response.get("currentPage"));
+        assertEquals(3, response.get("totalPages"));
+    }
+}
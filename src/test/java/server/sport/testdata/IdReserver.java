@@ -0,0 +1,56 @@
+package server.sport.testdata;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/*
+ * Hands out ids for rows inserted with JDBC, like the synthetic data, from the id sequences of the entities.
+ * Meant for bulk inserts while nothing else inserts into the table.
+ */
+@Component
+public class IdReserver {
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /*
+     * The first of count consecutive ids of the table which are past its rows and past every block of ids the
+     * sequence handed out - Hibernate keeps its current block in memory, so MAX(id) + 1 may already be taken.
+     * The sequence continues after the reserved ids.
+     */
+    public synchronized int reserve(String table, int count) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+            if (!entity.getTableName().equalsIgnoreCase(table) || !(persister.getIdentifierGenerator() instanceof SequenceStyleGenerator)) {
+                continue;
+            }
+            DatabaseStructure sequence = ((SequenceStyleGenerator) persister.getIdentifierGenerator()).getDatabaseStructure();
+            long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + entity.getIdentifierColumnNames()[0] + "), 0) + 1 FROM "
+                    + table, Long.class);
+            long first;
+            if (sequence.isPhysicalSequence()) {
+                //the value read is the start of a block nobody holds yet
+                first = Math.max(nextId, jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence.getName()), Long.class));
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence.getName() + " RESTART WITH " + (first + count));
+            } else {
+                first = Math.max(nextId, jdbcTemplate.queryForObject("SELECT next_val FROM " + sequence.getName(), Long.class));
+                jdbcTemplate.update("UPDATE " + sequence.getName() + " SET next_val = ?", first + count);
+            }
+            return Math.toIntExact(first);
+        }
+        throw new IllegalArgumentException("No entity with a sequence is stored in " + table);
+    }
+}
@@ -0,0 +1,308 @@
+package server.sport.testdata;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/*
+ * Generates a club federation of any size - sports, responsibilities, locations, teams, users, reservations,
+ * activities, activity statuses and user responsibilities - and writes it with JDBC batches.
+ * The same seed and scale always produce the same rows, only the ids are shifted. They are reserved from the
+ * id sequences, so they never collide with the ids Hibernate already holds.
+ * Reservations of one location never overlap, like the ones accepted by the API.
+ */
+public class SyntheticDataGenerator {
+    public static final Timestamp FIRST_DAY = Timestamp.valueOf("2021-01-04 08:00:00");
+    public static final String[] USER_STATUSES = {"READY", "UNAVAILABLE", "PICKED", "HAS NOT ANSWERED"};
+
+    private static final String[] FIRST_NAMES = {"Anna", "Mads", "Sofie", "Lars", "Ida", "Jonas", "Freja", "Emil", "Laura", "Oliver", "Clara", "Noah"};
+    private static final String[] LAST_NAMES = {"Hansen", "Jensen", "Nielsen", "Pedersen", "Andersen", "Christensen", "Larsen", "Rasmussen", "Poulsen", "Berg"};
+    private static final long SLOT = 30 * 60 * 1000L;
+    private static final int BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdReserver idReserver;
+    private final long seed;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, IdReserver idReserver, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idReserver = idReserver;
+        this.seed = seed;
+    }
+
+    public Result generate(Scale scale) {
+        Random random = new Random(seed);
+        Result result = new Result(scale);
+
+        Map<String, Integer> userTypes = ensureNames("user_types", "user_type_id", "user_name", Arrays.asList("COACH", "PLAYER"));
+        Map<String, Integer> activityTypes = ensureNames("activity_types", "activity_type_id", "activity_type_name", Arrays.asList("TRAINING", "MATCH"));
+        Map<String, Integer> userStatuses = ensureNames("user_statuses", "status_id", "status_name", Arrays.asList(USER_STATUSES));
+        int[] statusIds = new int[USER_STATUSES.length];
+        for (int i = 0; i < USER_STATUSES.length; i++) {
+            statusIds[i] = userStatuses.get(USER_STATUSES[i]);
+        }
+
+        Batch sports = new Batch("INSERT INTO sports (sport_id, sport_name, version) VALUES (?, ?, 0)");
+        result.firstSportId = idReserver.reserve("sports", scale.sports);
+        for (int i = 0; i < scale.sports; i++) {
+            int sportId = result.firstSportId + i;
+            sports.add(sportId, "Sport " + sportId);
+        }
+        sports.flush();
+
+        Batch responsibilities = new Batch("INSERT INTO responsibilities (responsibility_id, responsibility_name, sport_id) VALUES (?, ?, ?)");
+        result.firstResponsibilityId = idReserver.reserve("responsibilities", scale.sports * scale.responsibilitiesPerSport);
+        for (int i = 0; i < scale.sports * scale.responsibilitiesPerSport; i++) {
+            int responsibilityId = result.firstResponsibilityId + i;
+            responsibilities.add(responsibilityId, "Responsibility " + responsibilityId, result.firstSportId + i / scale.responsibilitiesPerSport);
+        }
+        responsibilities.flush();
+
+        Batch locations = new Batch("INSERT INTO locations (location_id, court_name, version) VALUES (?, ?, 0)");
+        result.firstLocationId = idReserver.reserve("locations", scale.locations);
+        for (int i = 0; i < scale.locations; i++) {
+            int locationId = result.firstLocationId + i;
+            locations.add(locationId, "Court " + locationId);
+        }
+        locations.flush();
+
+        Batch teams = new Batch("INSERT INTO teams (team_id, team_name, sport_id, version) VALUES (?, ?, ?, 0)");
+        result.firstTeamId = idReserver.reserve("teams", scale.teams);
+        int[] teamSports = new int[scale.teams];
+        for (int i = 0; i < scale.teams; i++) {
+            int teamId = result.firstTeamId + i;
+            teamSports[i] = random.nextInt(scale.sports);
+            teams.add(teamId, "Team " + teamId, result.firstSportId + teamSports[i]);
+            teams.flushIfFull();
+        }
+        teams.flush();
+
+        //the first member of every team is its coach
+        Batch users = new Batch("INSERT INTO users (user_id, first_name, last_name, email, age, gender, phone, user_type_id, team_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        result.firstUserId = idReserver.reserve("users", scale.teams * scale.playersPerTeam);
+        for (int i = 0; i < scale.teams * scale.playersPerTeam; i++) {
+            int userId = result.firstUserId + i;
+            users.add(userId, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    "user" + userId + "@synthetic.test", 16 + random.nextInt(30), random.nextBoolean() ? "female" : "male",
+                    "+45" + (20000000 + random.nextInt(80000000)), userTypes.get(i % scale.playersPerTeam == 0 ? "COACH" : "PLAYER"),
+                    result.firstTeamId + i / scale.playersPerTeam);
+            users.flushIfFull();
+        }
+        users.flush();
+
+        Batch reservations = new Batch("INSERT INTO reservations (reservation_id, start_at, end_at, location_id) VALUES (?, ?, ?, ?)");
+        Batch activities = new Batch("INSERT INTO activities (activity_id, activity_name, capacity, description, is_cancelled, creator_id, activity_type_id, team_id, reservation_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Batch activityStatuses = new Batch("INSERT INTO activity_statuses (status_id, user_id, activity_id) VALUES (?, ?, ?)");
+        Batch userResponsibilities = new Batch("INSERT INTO user_responsibilities (responsibility_id, user_id, activity_id) VALUES (?, ?, ?)");
+        result.firstReservationId = idReserver.reserve("reservations", scale.reservations);
+        result.firstActivityId = idReserver.reserve("activities", scale.reservations);
+        //end of the last reservation of every location, reservations are laid out one after the other
+        long[] locationFreeAt = new long[scale.locations];
+        Arrays.fill(locationFreeAt, FIRST_DAY.getTime());
+        int answers = Math.min(scale.answersPerActivity, scale.playersPerTeam);
+        for (int i = 0; i < scale.reservations; i++) {
+            int reservationId = result.firstReservationId + i;
+            int activityId = result.firstActivityId + i;
+            int location = i % scale.locations;
+            long startAt = locationFreeAt[location] + random.nextInt(4) * SLOT;
+            long endAt = startAt + (2 + random.nextInt(5)) * SLOT;
+            locationFreeAt[location] = endAt;
+            result.lastEndAt = Math.max(result.lastEndAt, endAt);
+            reservations.add(reservationId, new Timestamp(startAt), new Timestamp(endAt), result.firstLocationId + location);
+
+            int team = random.nextInt(scale.teams);
+            int firstMember = result.firstUserId + team * scale.playersPerTeam;
+            boolean match = random.nextInt(10) == 0;
+            activities.add(activityId, (match ? "Match " : "Training ") + activityId, random.nextBoolean() ? null : 10 + random.nextInt(20),
+                    null, random.nextInt(50) == 0, firstMember, activityTypes.get(match ? "MATCH" : "TRAINING"),
+                    result.firstTeamId + team, reservationId);
+
+            //distinct members of the team answer
+            int offset = random.nextInt(scale.playersPerTeam);
+            for (int answer = 0; answer < answers; answer++) {
+                activityStatuses.add(statusIds[random.nextInt(statusIds.length)], firstMember + (offset + answer) % scale.playersPerTeam, activityId);
+            }
+            for (int responsibility = 0; responsibility < scale.responsibilitiesPerSport; responsibility++) {
+                if (random.nextBoolean()) {
+                    userResponsibilities.add(result.firstResponsibilityId + teamSports[team] * scale.responsibilitiesPerSport + responsibility,
+                            firstMember + random.nextInt(scale.playersPerTeam), activityId);
+                }
+            }
+            //parents before children, the batches are flushed together in the order of the foreign keys
+            if (activityStatuses.size() >= BATCH_SIZE || reservations.size() >= BATCH_SIZE) {
+                reservations.flush();
+                activities.flush();
+                activityStatuses.flush();
+                userResponsibilities.flush();
+            }
+        }
+        reservations.flush();
+        activities.flush();
+        activityStatuses.flush();
+        userResponsibilities.flush();
+        return result;
+    }
+
+    //name -> id of the rows of a lookup table, inserting the names that are missing
+    private Map<String, Integer> ensureNames(String table, String idColumn, String nameColumn, List<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT " + idColumn + ", " + nameColumn + " FROM " + table,
+                row -> { ids.putIfAbsent(row.getString(2), row.getInt(1)); });
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                int id = idReserver.reserve(table, 1);
+                jdbcTemplate.update("INSERT INTO " + table + " (" + idColumn + ", " + nameColumn + ") VALUES (?, ?)", id, name);
+                ids.put(name, id);
+            }
+        }
+        return ids;
+    }
+
+    private class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+        }
+
+        void flushIfFull() {
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    public static class Scale {
+        int sports = 5;
+        int responsibilitiesPerSport = 3;
+        int locations = 50;
+        int teams = 10;
+        int playersPerTeam = 20;
+        int reservations = 1000;
+        int answersPerActivity = 5;
+
+        //one team of 20 per thousand reservations, at least 10 teams
+        public static Scale ofReservations(int reservations) {
+            Scale scale = new Scale();
+            scale.reservations = reservations;
+            scale.teams = Math.max(10, reservations / 1000);
+            return scale;
+        }
+
+        public Scale sports(int sports) {
+            this.sports = sports;
+            return this;
+        }
+
+        public Scale responsibilitiesPerSport(int responsibilitiesPerSport) {
+            this.responsibilitiesPerSport = responsibilitiesPerSport;
+            return this;
+        }
+
+        public Scale locations(int locations) {
+            this.locations = locations;
+            return this;
+        }
+
+        public Scale teams(int teams) {
+            this.teams = teams;
+            return this;
+        }
+
+        public Scale playersPerTeam(int playersPerTeam) {
+            this.playersPerTeam = playersPerTeam;
+            return this;
+        }
+
+        public Scale answersPerActivity(int answersPerActivity) {
+            this.answersPerActivity = answersPerActivity;
+            return this;
+        }
+
+        public int getReservations() {
+            return reservations;
+        }
+
+        public int getTeams() {
+            return teams;
+        }
+
+        public int getLocations() {
+            return locations;
+        }
+
+        public int getPlayersPerTeam() {
+            return playersPerTeam;
+        }
+    }
+
+    //first id of every generated table and the time span of the reservations
+    public static class Result {
+        private final Scale scale;
+        int firstSportId;
+        int firstResponsibilityId;
+        int firstLocationId;
+        int firstTeamId;
+        int firstUserId;
+        int firstReservationId;
+        int firstActivityId;
+        long lastEndAt = FIRST_DAY.getTime();
+
+        Result(Scale scale) {
+            this.scale = scale;
+        }
+
+        public Scale getScale() {
+            return scale;
+        }
+
+        public int getFirstSportId() {
+            return firstSportId;
+        }
+
+        public int getFirstLocationId() {
+            return firstLocationId;
+        }
+
+        public int getFirstTeamId() {
+            return firstTeamId;
+        }
+
+        public int getFirstUserId() {
+            return firstUserId;
+        }
+
+        public int getFirstReservationId() {
+            return firstReservationId;
+        }
+
+        public int getFirstActivityId() {
+            return firstActivityId;
+        }
+
+        public Timestamp getFirstStartAt() {
+            return FIRST_DAY;
+        }
+
+        public Timestamp getLastEndAt() {
+            return new Timestamp(lastEndAt);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package server.sport.testdata;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import server.sport.model.Location;
+import server.sport.repository.LocationRepository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Rolled back after every test, the generated rows never reach the other tests
+@SpringBootTest
+@Transactional
+public class SyntheticDataGeneratorTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    IdReserver idReserver;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Test
+    public void generateTestScale() {
+        SyntheticDataGenerator.Scale scale = SyntheticDataGenerator.Scale.ofReservations(2000).teams(4).playersPerTeam(10).locations(7);
+        SyntheticDataGenerator.Result result = new SyntheticDataGenerator(jdbcTemplate, idReserver, 1).generate(scale);
+
+        assertEquals(2000, count("SELECT COUNT(*) FROM reservations WHERE reservation_id >= ?", result.getFirstReservationId()));
+        assertEquals(2000, count("SELECT COUNT(*) FROM activities WHERE activity_id >= ?", result.getFirstActivityId()));
+        assertEquals(40, count("SELECT COUNT(*) FROM users WHERE user_id >= ?", result.getFirstUserId()));
+        assertEquals(2000 * 5, count("SELECT COUNT(*) FROM activity_statuses WHERE activity_id >= ?", result.getFirstActivityId()));
+        //everybody who answered is a member of the team of the activity
+        assertEquals(0, count("SELECT COUNT(*) FROM activity_statuses s JOIN activities a ON a.activity_id = s.activity_id " +
+                "JOIN users u ON u.user_id = s.user_id WHERE a.activity_id >= ? AND u.team_id <> a.team_id", result.getFirstActivityId()));
+    }
+
+    @Test
+    public void generateTestNoOverlappingReservations() {
+        SyntheticDataGenerator.Result result = new SyntheticDataGenerator(jdbcTemplate, idReserver, 7).generate(SyntheticDataGenerator.Scale.ofReservations(1000).locations(5));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM reservations r1 JOIN reservations r2 ON r1.location_id = r2.location_id " +
+                "AND r1.reservation_id < r2.reservation_id AND r1.start_at < r2.end_at AND r1.end_at > r2.start_at " +
+                "WHERE r1.reservation_id >= ?", result.getFirstReservationId()));
+    }
+
+    @Test
+    public void generateTestSameSeedSameRows() {
+        SyntheticDataGenerator.Scale scale = SyntheticDataGenerator.Scale.ofReservations(500);
+        SyntheticDataGenerator.Result first = new SyntheticDataGenerator(jdbcTemplate, idReserver, 42).generate(scale);
+        SyntheticDataGenerator.Result second = new SyntheticDataGenerator(jdbcTemplate, idReserver, 42).generate(scale);
+
+        assertEquals(reservationTimes(first), reservationTimes(second));
+        assertEquals(activities(first), activities(second));
+    }
+
+    @Test
+    public void generateTestIdsAreNotInTheHibernateBlock() {
+        //Hibernate holds the rest of the block of this id in memory, earlier tests may have started the block
+        int before = locationRepository.saveAndFlush(new Location("Before")).getLocationId();
+        SyntheticDataGenerator.Result result = new SyntheticDataGenerator(jdbcTemplate, idReserver, 5)
+                .generate(SyntheticDataGenerator.Scale.ofReservations(100).locations(60));
+        assertTrue(result.getFirstLocationId() > before);
+
+        //more than a block, the rest of the held block and the next one never hand out a reserved id
+        for (int i = 0; i < 60; i++) {
+            int locationId = locationRepository.saveAndFlush(new Location("After " + i)).getLocationId();
+            assertTrue(locationId < result.getFirstLocationId() || locationId >= result.getFirstLocationId() + 60);
+        }
+    }
+
+    private List<Timestamp> reservationTimes(SyntheticDataGenerator.Result result) {
+        return jdbcTemplate.queryForList("SELECT start_at FROM reservations WHERE reservation_id BETWEEN ? AND ? ORDER BY reservation_id",
+                Timestamp.class, result.getFirstReservationId(), result.getFirstReservationId() + result.getScale().getReservations() - 1);
+    }
+
+    //the ids differ between the runs, the team is compared relative to the first generated team
+    private List<String> activities(SyntheticDataGenerator.Result result) {
+        return jdbcTemplate.queryForList("SELECT activity_type_id || '/' || (team_id - ?) || '/' || COALESCE(capacity, 0) || '/' || is_cancelled " +
+                "FROM activities WHERE activity_id >= ? AND activity_id < ? ORDER BY activity_id", String.class,
+                result.getFirstTeamId(), result.getFirstActivityId(), result.getFirstActivityId() + result.getScale().getReservations());
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
@@ -0,0 +1,41 @@
+package server.sport.testdata;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * Fills the database with synthetic data when testdata.synthetic.reservations is set.
+ * Runs before the application is ready, so the in-memory indexes and caches load the generated rows.
+ */
+@Component
+@ConditionalOnProperty(name = "testdata.synthetic.reservations")
+public class SyntheticDataLoader implements ApplicationRunner {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    IdReserver idReserver;
+
+    @Value("${testdata.synthetic.reservations}")
+    int reservations;
+
+    @Value("${testdata.synthetic.seed:42}")
+    long seed;
+
+    private SyntheticDataGenerator.Result result;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbcTemplate, idReserver, seed);
+        result = generator.generate(SyntheticDataGenerator.Scale.ofReservations(reservations));
+    }
+
+    public SyntheticDataGenerator.Result getResult() {
+        return result;
+    }
+}
@@ -7,6 +7,7 @@ CREATE TABLE IF NOT EXISTS `dbo`.`sports`
 (
     `sport_id`   INT         NOT NULL IDENTITY,
     `sport_name` VARCHAR(45) NOT NULL,
+    `version`    INT         NOT NULL DEFAULT 0,
     PRIMARY KEY (`sport_id`)
 );
 
@@ -18,6 +19,7 @@ CREATE TABLE IF NOT EXISTS `dbo`.`teams`
     `team_id`   INT         NOT NULL IDENTITY,
     `team_name` VARCHAR(45) NOT NULL,
     `sport_id`  INT         NOT NULL,
+    `version`   INT         NOT NULL DEFAULT 0,
     PRIMARY KEY (`team_id`),
     CONSTRAINT `sport_id`
         FOREIGN KEY (`sport_id`)
@@ -92,6 +94,7 @@ CREATE TABLE IF NOT EXISTS `dbo`.`locations`
 (
     `location_id` INT         NOT NULL IDENTITY,
     `court_name`  VARCHAR(45) NOT NULL,
+    `version`     INT         NOT NULL DEFAULT 0,
     PRIMARY KEY (`location_id`)
 );
 
@@ -112,6 +115,47 @@ CREATE TABLE IF NOT EXISTS `dbo`.`reservations`
 );
 
 
+-- -----------------------------------------------------
+-- Table `mydb`.`activity_series`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `dbo`.`activity_series`
+(
+    `series_id`        INT          NOT NULL IDENTITY,
+    `activity_name`    VARCHAR(45)  NOT NULL,
+    `capacity`         INT          NULL,
+    `description`      VARCHAR(450) NULL,
+    `recurrence_rule`  VARCHAR(200) NOT NULL,
+    `first_start_at`   DATETIME     NOT NULL,
+    `first_end_at`     DATETIME     NOT NULL,
+    `last_end_at`      DATETIME     NOT NULL,
+    `creator_id`       INT          NOT NULL,
+    `activity_type_id` INT          NOT NULL,
+    `team_id`          INT          NOT NULL,
+    `location_id`      INT          NOT NULL,
+    PRIMARY KEY (`series_id`),
+    CONSTRAINT `series_creator`
+        FOREIGN KEY (`creator_id`)
+            REFERENCES `dbo`.`users` (`user_id`)
+            ON DELETE RESTRICT
+            ON UPDATE CASCADE,
+    CONSTRAINT `series_activity_type_id`
+        FOREIGN KEY (`activity_type_id`)
+            REFERENCES `dbo`.`activity_types` (`activity_type_id`)
+            ON DELETE RESTRICT
+            ON UPDATE CASCADE,
+    CONSTRAINT `series_team_id`
+        FOREIGN KEY (`team_id`)
+            REFERENCES `dbo`.`teams` (`team_id`)
+            ON DELETE RESTRICT
+            ON UPDATE CASCADE,
+    CONSTRAINT `series_location_id`
+        FOREIGN KEY (`location_id`)
+            REFERENCES `dbo`.`locations` (`location_id`)
+            ON DELETE RESTRICT
+            ON UPDATE CASCADE
+);
+
+
 -- -----------------------------------------------------
 -- Table `mydb`.`activities`
 -- -----------------------------------------------------
@@ -126,7 +170,10 @@ CREATE TABLE IF NOT EXISTS `dbo`.`activities`
     `is_cancelled`     BINARY(1)    NOT NULL,
     `reservation_id`   INT          NOT NULL,
     `team_id`          INT          NOT NULL,
+    `series_id`           INT       NULL,
+    `occurrence_start_at` DATETIME  NULL,
     PRIMARY KEY (`activity_id`),
+    UNIQUE (`series_id`, `occurrence_start_at`),
     CONSTRAINT `activity_type_id`
         FOREIGN KEY (`activity_type_id`)
             REFERENCES `dbo`.`activity_types` (`activity_type_id`)
@@ -146,6 +193,11 @@ CREATE TABLE IF NOT EXISTS `dbo`.`activities`
         FOREIGN KEY (`team_id`)
             REFERENCES `dbo`.`teams` (`team_id`)
             ON DELETE RESTRICT
+            ON UPDATE CASCADE,
+    CONSTRAINT `series_id`
+        FOREIGN KEY (`series_id`)
+            REFERENCES `dbo`.`activity_series` (`series_id`)
+            ON DELETE RESTRICT
             ON UPDATE CASCADE
 );
 